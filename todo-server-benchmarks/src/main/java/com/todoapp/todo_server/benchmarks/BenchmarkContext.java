@@ -0,0 +1,100 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.TodoServerApplication;
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.entity.Roles;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.RoleRepository;
+import com.todoapp.todo_server.repository.UserRepository;
+import com.todoapp.todo_server.service.TaskService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// One application context per forked benchmark JVM, backed by the todo_bench schema on Postgres (see
+// application-bench.properties). The schema is cleaned and migrated on start, then seeded with USERS users
+// owning TASKS_PER_USER tasks each.
+public final class BenchmarkContext {
+    public static final int USERS = 10;
+    public static final int TASKS_PER_USER = 1000;
+    public static final String USERNAME_PREFIX = "bench-user-";
+
+    private static ConfigurableApplicationContext context;
+    private static List<Long> userIds;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext start() throws Exception {
+        if (context == null) {
+            context = new SpringApplicationBuilder(TodoServerApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("bench")
+                    .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton(
+                            "benchFlywayMigrationStrategy", (FlywayMigrationStrategy) flyway -> {
+                                flyway.clean();
+                                flyway.migrate();
+                            }))
+                    .run();
+            userIds = seed(context);
+        }
+        return context;
+    }
+
+    public static synchronized void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+            userIds = null;
+        }
+    }
+
+    public static List<Long> userIds() {
+        return userIds;
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context) throws Exception {
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        TaskService taskService = context.getBean(TaskService.class);
+
+        // Role and users are seeded in one transaction
+        List<Long> ids = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            Roles role = new Roles();
+            role.setRoleName("USER");
+            role = roleRepository.save(role);
+
+            List<Long> created = new ArrayList<>();
+            for (int u = 0; u < USERS; u++) {
+                UserEntity user = new UserEntity();
+                user.setUsername(USERNAME_PREFIX + u);
+                user.setPassword(passwordEncoder.encode("password"));
+                user.setRolesList(Collections.singleton(role));
+                created.add(userRepository.save(user).getId());
+            }
+            return created;
+        });
+
+        List<TaskCreateDTO> tasks = new ArrayList<>();
+        for (int t = 0; t < USERS * TASKS_PER_USER; t++) {
+            TaskCreateDTO task = new TaskCreateDTO();
+            task.setTitle("task " + t);
+            task.setDescription("description of task " + t);
+            task.setStatus(t % 3 == 0 ? TaskStatus.DONE : TaskStatus.OPEN);
+            task.setUserId(ids.get(t % USERS));
+            tasks.add(task);
+        }
+        taskService.addTasksAndAssign(tasks);
+        return ids;
+    }
+}
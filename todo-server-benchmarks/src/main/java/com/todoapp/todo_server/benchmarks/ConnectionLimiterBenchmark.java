@@ -0,0 +1,101 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.config.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// A burst of requests against the same pool of 10 connections. Each request blocks outside the database for
+// THINK_MILLIS (a downstream call, a slow client) and holds a connection for one query plus HOLD_MILLIS:
+// - platform: 200 platform threads, Tomcat's default, so at most 200 requests are in flight
+// - virtual: a virtual thread per request straight on the pool, as with spring.threads.virtual.enabled alone
+// - virtual-limited: a virtual thread per request through ConnectionLimitingDataSource (VirtualThreadConfig)
+// Time per burst; the pool bounds the database part the same way in all three.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConnectionLimiterBenchmark {
+    private static final int POOL_SIZE = 10;
+    private static final int REQUESTS = 2000;
+    private static final long THINK_MILLIS = 50;
+    private static final long HOLD_MILLIS = 1;
+
+    @Param({"platform", "virtual", "virtual-limited"})
+    public String mode;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:connection-limiter;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        pool = new HikariDataSource(config);
+        dataSource = mode.equals("virtual-limited")
+                ? new ConnectionLimitingDataSource(pool, POOL_SIZE, Duration.ofSeconds(30)) : pool;
+        executor = mode.equals("platform") ? Executors.newFixedThreadPool(200) : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(executor.submit(this::request));
+        }
+        int served = 0;
+        for (Future<Integer> request : requests) {
+            served += request.get();
+        }
+        if (served != REQUESTS) {
+            throw new IllegalStateException(served + " of " + REQUESTS + " requests served");
+        }
+        return served;
+    }
+
+    private int request() throws Exception {
+        Thread.sleep(THINK_MILLIS);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select 1")) {
+            result.next();
+            Thread.sleep(HOLD_MILLIS);
+            return result.getInt(1);
+        }
+    }
+}
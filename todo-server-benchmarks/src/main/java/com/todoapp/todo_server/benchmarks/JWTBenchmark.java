@@ -0,0 +1,82 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.security.JWTGenerator;
+import com.todoapp.todo_server.security.JWTVerifier;
+import com.todoapp.todo_server.security.SecurityConstants;
+import com.todoapp.todo_server.security.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTBenchmark {
+    private JWTGenerator jwtGenerator;
+    private JWTVerifier jwtVerifier;
+    private JWTVerifier cachingJwtVerifier;
+    private Authentication authentication;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.JWT_SECRETES));
+        jwtVerifier = new JWTVerifier(key, 0, new SimpleMeterRegistry());
+        cachingJwtVerifier = new JWTVerifier(key, 1000, new SimpleMeterRegistry());
+        jwtGenerator = new JWTGenerator(key, jwtVerifier);
+        authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "bench-user", null, List.of(new SimpleGrantedAuthority("USER")));
+        token = jwtGenerator.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtGenerator.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtGenerator.validate(token);
+    }
+
+    // Filter path before JWTVerifier: decode the key and build a parser for validate, then again for the username
+    @Benchmark
+    public String filterPathLegacy() {
+        SecretKey validateKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.JWT_SECRETES));
+        Jwts.parser().verifyWith(validateKey).build().parseSignedClaims(token);
+        SecretKey usernameKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SecurityConstants.JWT_SECRETES));
+        return Jwts.parser().verifyWith(usernameKey).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public VerifiedToken filterPath() {
+        return jwtVerifier.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken filterPathCached() {
+        return cachingJwtVerifier.verify(token);
+    }
+}
@@ -0,0 +1,79 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.security.RequestRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// What RequestRateLimitFilter adds to a request: budget lookup, in-flight slot and token, with 8 threads
+// contending on one principal's budget or each using its own.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private RequestRateLimiter admittingLimiter;
+    private RequestRateLimiter sheddingLimiter;
+
+    @State(Scope.Thread)
+    public static class Principal {
+        private String name;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            name = "bench-user-" + THREAD_IDS.incrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        admittingLimiter = new RequestRateLimiter(1e9, 1_000_000, 1e9, 1_000_000, 1_000, 1_000, 100_000, Duration.ofMinutes(10));
+        sheddingLimiter = new RequestRateLimiter(1, 1, 1, 1, 1_000, 1_000, 100_000, Duration.ofMinutes(10));
+        admit(sheddingLimiter, "shared");
+    }
+
+    @Benchmark
+    public long sharedPrincipalAdmitted() {
+        return admit(admittingLimiter, "shared");
+    }
+
+    @Benchmark
+    public long distinctPrincipalsAdmitted(Principal principal) {
+        return admit(admittingLimiter, principal.name);
+    }
+
+    @Benchmark
+    public long sharedPrincipalShed() {
+        return admit(sheddingLimiter, "shared");
+    }
+
+    private static long admit(RequestRateLimiter limiter, String principal) {
+        RequestRateLimiter.ClientBudget budget = limiter.tryEnter(principal, false);
+        if (budget == null) {
+            return -1;
+        }
+        try {
+            return budget.tryAcquire(false, System.nanoTime());
+        } finally {
+            limiter.exit(principal, budget, false);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time from launching the server to its first successful GET /api/v1/tasks, for the plain executable jar
+// and for the fast-start build (AOT and class data sharing, see the fast-start profile in todo-server/pom.xml).
+// Not a JMH benchmark, every sample is a fresh JVM; run by mvn -Pfast-start verify. Both variants start
+// against the configured database with the prod profile. The signing key is fixed, so a token taken in a
+// warm-up start is valid in every later one and no login is timed.
+public final class StartupBenchmark {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int port;
+    private final Path logDirectory;
+
+    private StartupBenchmark(int port, Path logDirectory) {
+        this.port = port;
+        this.baseUrl = "http://localhost:" + port;
+        this.logDirectory = logDirectory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        String username = System.getProperty("startup.username", "startup-benchmark");
+        String password = System.getProperty("startup.password", "startup-benchmark");
+        Path plainJar = Path.of(System.getProperty("startup.plain-jar"));
+        Path fastStartJar = Path.of(System.getProperty("startup.fast-start-jar"));
+        Path archive = Path.of(System.getProperty("startup.fast-start-archive"));
+        String fastStartProfiles = System.getProperty("startup.fast-start-profiles", "prod,fast-start");
+        Path logDirectory = Path.of(System.getProperty("startup.log-directory", "target"));
+        for (Path file : List.of(plainJar, fastStartJar, archive)) {
+            if (!Files.exists(file)) {
+                throw new IllegalStateException(file + " not found, build todo-server with -Pfast-start first");
+            }
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark(Integer.getInteger("startup.port", 18080), logDirectory);
+        List<String> plain = List.of("-Dspring.profiles.active=prod", "-jar", plainJar.toString());
+        List<String> fastStart = List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=" + fastStartProfiles, "-jar", fastStartJar.toString());
+
+        // Also brings the jars and the database into the page cache before anything is timed
+        String token = benchmark.warmUp(plain, username, password);
+        List<Long> plainMillis = benchmark.measure("plain", plain, token, runs);
+        List<Long> fastStartMillis = benchmark.measure("fast-start", fastStart, token, runs);
+
+        System.out.println();
+        System.out.println("Time to first successful GET /api/v1/tasks over " + runs + " starts (ms)");
+        report("plain", plainMillis);
+        report("fast-start", fastStartMillis);
+        System.out.printf("fast-start median is %.0f%% of plain%n", 100.0 * median(fastStartMillis) / median(plainMillis));
+    }
+
+    private String warmUp(List<String> jvmArguments, String username, String password) throws Exception {
+        Process server = start("warm-up", jvmArguments);
+        try {
+            String credentials = objectMapper.writeValueAsString(new Credentials(username, password));
+            long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+            while (true) {
+                checkAlive(server, "warm-up", deadline);
+                try {
+                    // Answers 400 when the user is left over from an earlier run
+                    send(post("/api/auth/register/user", credentials));
+                    HttpResponse<String> login = send(post("/api/auth/login", credentials));
+                    if (login.statusCode() / 100 == 2) {
+                        return objectMapper.readTree(login.body()).get("accessToken").asText();
+                    }
+                    throw new IllegalStateException("Login failed with " + login.statusCode());
+                } catch (ConnectException e) {
+                    Thread.sleep(POLL_INTERVAL_MILLIS);
+                }
+            }
+        } finally {
+            stop(server);
+        }
+    }
+
+    private List<Long> measure(String variant, List<String> jvmArguments, String token, int runs) throws Exception {
+        HttpRequest tasks = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/tasks?limit=1"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        List<Long> millis = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long started = System.nanoTime();
+            Process server = start(variant, jvmArguments);
+            try {
+                long deadline = started + STARTUP_TIMEOUT.toNanos();
+                while (true) {
+                    checkAlive(server, variant, deadline);
+                    try {
+                        int status = send(tasks).statusCode();
+                        if (status == 200 || status == 204) {
+                            break;
+                        }
+                        throw new IllegalStateException(variant + " answered GET /api/v1/tasks with " + status);
+                    } catch (ConnectException e) {
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                    }
+                }
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                System.out.println(variant + " run " + run + ": " + elapsed + " ms");
+                millis.add(elapsed);
+            } finally {
+                stop(server);
+            }
+        }
+        return millis;
+    }
+
+    private Process start(String variant, List<String> jvmArguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.add("--server.port=" + port);
+        File log = logDirectory.resolve("startup-" + variant + ".log").toFile();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+    }
+
+    private static void stop(Process server) throws InterruptedException {
+        server.destroy();
+        if (!server.waitFor(30, TimeUnit.SECONDS)) {
+            server.destroyForcibly().waitFor();
+        }
+    }
+
+    private void checkAlive(Process server, String variant, long deadline) {
+        if (!server.isAlive()) {
+            throw new IllegalStateException(variant + " exited with " + server.exitValue() + ", see " + logDirectory.resolve("startup-" + variant + ".log"));
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new IllegalStateException(variant + " did not answer within " + STARTUP_TIMEOUT);
+        }
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void report(String variant, List<Long> millis) {
+        System.out.printf("%-10s median %5d  min %5d  max %5d%n", variant, median(millis),
+                Collections.min(millis), Collections.max(millis));
+    }
+
+    private static long median(List<Long> millis) {
+        List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private record Credentials(String username, String password) {
+    }
+}
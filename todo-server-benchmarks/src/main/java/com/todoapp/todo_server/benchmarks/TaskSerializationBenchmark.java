@@ -0,0 +1,102 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode cost of a task list in every response encoding: JSON, CBOR and Smile, each as is and gzipped
+// the way Tomcat compresses (default deflate level). Payload sizes are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task((long) i, "task " + i, "description of task " + i);
+            task.setStatus(i % 3 == 0 ? TaskStatus.DONE : TaskStatus.OPEN);
+            tasks.add(task);
+        }
+        try {
+            System.out.printf("%n%d tasks: json %d, json+gzip %d, cbor %d, cbor+gzip %d, smile %d, smile+gzip %d bytes%n", size,
+                    objectMapper.writeValueAsBytes(tasks).length, gzip(objectMapper).length,
+                    cborMapper.writeValueAsBytes(tasks).length, gzip(cborMapper).length,
+                    smileMapper.writeValueAsBytes(tasks).length, gzip(smileMapper).length);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListGzip() throws Exception {
+        return gzip(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListCbor() throws Exception {
+        return cborMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListCborGzip() throws Exception {
+        return gzip(cborMapper);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListSmile() throws Exception {
+        return smileMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskListSmileGzip() throws Exception {
+        return gzip(smileMapper);
+    }
+
+    private byte[] gzip(ObjectMapper mapper) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            mapper.writeValue(out, tasks);
+        }
+        return buffer.toByteArray();
+    }
+}
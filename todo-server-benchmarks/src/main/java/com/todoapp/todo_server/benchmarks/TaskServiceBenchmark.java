@@ -0,0 +1,84 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+    private static final int IMPORT_SIZE = 10_000;
+
+    private TaskService taskService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        taskService = BenchmarkContext.start().getBean(TaskService.class);
+        userId = BenchmarkContext.userIds().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.stop();
+    }
+
+    @Benchmark
+    public List<Task> getTasksByTitle() throws Exception {
+        return taskService.getTasksByTitle("task 424");
+    }
+
+    @Benchmark
+    public List<Task> getTasksByUserId() throws Exception {
+        return taskService.getTasksByUserId(userId);
+    }
+
+    @Benchmark
+    public Task addTaskAndAssign() throws Exception {
+        return taskService.addTaskAndAssign(new Task("benchmark task", "added by addTaskAndAssign"), userId);
+    }
+
+    // Importer comparison: IMPORT_SIZE single adds against one batch of the same size
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int importTasksOneByOne() throws Exception {
+        for (int i = 0; i < IMPORT_SIZE; i++) {
+            taskService.addTaskAndAssign(new Task("imported task " + i, "imported one by one"), userId);
+        }
+        return IMPORT_SIZE;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Task> importTasksBatched() throws Exception {
+        List<TaskCreateDTO> requests = new ArrayList<>(IMPORT_SIZE);
+        for (int i = 0; i < IMPORT_SIZE; i++) {
+            TaskCreateDTO request = new TaskCreateDTO();
+            request.setTitle("imported task " + i);
+            request.setDescription("imported as a batch");
+            request.setUserId(userId);
+            requests.add(request);
+        }
+        return taskService.addTasksAndAssign(requests);
+    }
+}
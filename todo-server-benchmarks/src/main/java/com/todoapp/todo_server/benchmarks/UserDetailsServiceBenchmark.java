@@ -0,0 +1,50 @@
+package com.todoapp.todo_server.benchmarks;
+
+import com.todoapp.todo_server.security.CustomeUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsServiceBenchmark {
+    private CustomeUserDetailsService userDetailsService;
+    private String username;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        userDetailsService = BenchmarkContext.start().getBean(CustomeUserDetailsService.class);
+        username = BenchmarkContext.USERNAME_PREFIX + 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.stop();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    @Benchmark
+    public UserDetails loadPrincipalByUsername() {
+        return userDetailsService.loadPrincipalByUsername(username);
+    }
+}
@@ -0,0 +1,41 @@
+package com.todoapp.todo_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// todo.datasource.pool.auto-size=true (prod profile) replaces spring.datasource.hikari.maximum-pool-size
+// with ConnectionPoolSizing. The pool is kept at a fixed size, as HikariCP recommends. db-cores defaults
+// to this host's processors, set it when the database runs elsewhere.
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.pool.auto-size", havingValue = "true")
+@Log4j2
+public class ConnectionPoolConfig {
+
+    @Bean
+    static BeanPostProcessor connectionPoolSizingPostProcessor(
+            @Value("${todo.datasource.pool.db-cores:0}") int dbCores,
+            @Value("${todo.datasource.pool.effective-spindles:1}") int effectiveSpindles,
+            @Value("${todo.datasource.pool.db-max-connections:100}") int dbMaxConnections,
+            @Value("${todo.datasource.pool.reserved-connections:10}") int reservedConnections,
+            @Value("${todo.datasource.pool.instances:1}") int instances) {
+        int cores = dbCores > 0 ? dbCores : Runtime.getRuntime().availableProcessors();
+        int poolSize = ConnectionPoolSizing.poolSize(cores, effectiveSpindles, dbMaxConnections, reservedConnections, instances);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    log.info("Connection pool {} sized to {} ({} database cores, {} of {} connections for {} instances)",
+                            beanName, poolSize, cores, dbMaxConnections - reservedConnections, dbMaxConnections, instances);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.todoapp.todo_server.config;
+
+// HikariCP's rule of thumb: connections = database cores * 2 + effective spindles. Beyond that, extra
+// connections only queue inside Postgres. Capped by this instance's share of max_connections, after the
+// ones kept free for superusers, migrations and admin sessions.
+public final class ConnectionPoolSizing {
+
+    private ConnectionPoolSizing() {
+    }
+
+    public static int poolSize(int dbCores, int effectiveSpindles, int dbMaxConnections, int reservedConnections, int instances) {
+        if (dbCores < 1 || effectiveSpindles < 0 || instances < 1) {
+            throw new IllegalArgumentException("Invalid pool sizing inputs: cores " + dbCores
+                    + ", spindles " + effectiveSpindles + ", instances " + instances);
+        }
+        int available = dbMaxConnections - reservedConnections;
+        if (available < instances) {
+            throw new IllegalArgumentException("max_connections " + dbMaxConnections + " minus " + reservedConnections
+                    + " reserved leaves less than one connection for each of " + instances + " instances");
+        }
+        return Math.min(dbCores * 2 + effectiveSpindles, available / instances);
+    }
+}
@@ -0,0 +1,42 @@
+package com.todoapp.todo_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+// Serializes into a buffer before writing, so JSON responses carry a Content-Length. Tomcat only
+// holds a response against server.compression.min-response-size when it knows the length; a
+// streamed body of unknown length is always compressed, however small. Bodies are bounded by
+// TaskService.MAX_PAGE_SIZE, the unbounded export streams on its own.
+public class ContentLengthJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    public ContentLengthJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        outputMessage.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,23 @@
+package com.todoapp.todo_server.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Publishes Hibernate statistics, including second-level and query cache hits/misses per region,
+// as hibernate.* meters. Statistics are only collected when generate_statistics is on (l2cache profile).
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.generate_statistics", havingValue = "true")
+public class HibernateMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> HibernateMetrics.monitor(registry, entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory", Tags.empty());
+    }
+}
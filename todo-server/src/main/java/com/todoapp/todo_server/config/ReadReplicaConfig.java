@@ -0,0 +1,93 @@
+package com.todoapp.todo_server.config;
+
+import com.todoapp.todo_server.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+// todo.datasource.replica.enabled=true wraps the pool of spring.datasource in a ReadReplicaRoutingDataSource
+// with one pool per todo.datasource.replica.urls entry. Replica pools copy the primary's settings, including
+// the size from ConnectionPoolConfig, and are read-only; username and password default to the primary's.
+// More replicas add read capacity, writes and the reads that must see them stay on the primary.
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.replica.enabled", havingValue = "true")
+@Log4j2
+public class ReadReplicaConfig {
+
+    @Bean
+    static BeanPostProcessor readReplicaRoutingPostProcessor(
+            @Value("${todo.datasource.replica.urls:}") String[] urls,
+            @Value("${todo.datasource.replica.username:}") String username,
+            @Value("${todo.datasource.replica.password:}") String password,
+            @Value("${todo.datasource.replica.health-check-interval:5s}") Duration healthCheckInterval,
+            @Value("${todo.datasource.replica.max-lag:5s}") Duration maxLag,
+            ObjectProvider<ReadYourWrites> readYourWrites) {
+        if (urls.length == 0) {
+            throw new IllegalStateException("todo.datasource.replica.enabled needs todo.datasource.replica.urls");
+        }
+        return new RoutingPostProcessor(primary -> {
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < urls.length; i++) {
+                replicas.add(replicaPool(primary, urls[i].trim(), primary.getPoolName() + "-replica-" + (i + 1), username, password));
+            }
+            log.info("Read-only transactions routed to {} replicas of pool {}", replicas.size(), primary.getPoolName());
+            return new ReadReplicaRoutingDataSource(primary, replicas, () -> {
+                ReadYourWrites tracker = readYourWrites.getIfAvailable();
+                return tracker != null && tracker.mustReadFromPrimary();
+            }, () -> readYourWrites.ifAvailable(ReadYourWrites::markCurrentPrincipal), healthCheckInterval, maxLag);
+        });
+    }
+
+    @Bean
+    MeterBinder readReplicaMetrics(DataSource dataSource) throws SQLException {
+        ReadReplicaRoutingDataSource routing = dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+        return routing::bindTo;
+    }
+
+    private static HikariDataSource replicaPool(HikariDataSource primary, String url, String poolName, String username, String password) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setJdbcUrl(url);
+        config.setPoolName(poolName);
+        if (!username.isEmpty()) {
+            config.setUsername(username);
+            config.setPassword(password);
+        }
+        config.setReadOnly(true);
+        // A replica that is down at startup only stays out of rotation
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory(null);
+        return new HikariDataSource(config);
+    }
+
+    // Runs ahead of the other data source post processors, so a wrapper such as ConnectionLimitingDataSource
+    // goes around the routing data source rather than in between it and the primary pool
+    private record RoutingPostProcessor(Function<HikariDataSource, DataSource> routing)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof HikariDataSource primary ? routing.apply(primary) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.todoapp.todo_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+// Runs read-only transactions (@Transactional(readOnly = true)) on read replicas and everything else on the
+// primary. Connections are lazy: the transaction manager marks one read-only before its first statement, and
+// only then is a physical connection taken, from a replica pool or from the primary.
+// - Replicas take turns. One that failed its last health check, could not hand out a connection or lags more
+//   than max-lag behind the primary is skipped until a health check finds it back in shape.
+// - Without a healthy replica, or while the caller has to read its own writes, read-only work runs on the
+//   primary instead, on a connection set read-only.
+// - A transaction that is not read-only and takes a primary connection reports its commit to writeCommitted,
+//   whatever it wrote, so the caller's next reads can be kept on the primary.
+@Log4j2
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+    // Seconds since the last replayed transaction while a standby still has WAL to replay, otherwise 0.
+    // A database that is not in recovery, like a local stand-in for a replica, is never behind.
+    private static final String LAG_QUERY = "select case when pg_is_in_recovery()"
+            + " and pg_last_wal_receive_lsn() is distinct from pg_last_wal_replay_lsn()"
+            + " then coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) else 0 end";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final BooleanSupplier primaryRequired;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ScheduledExecutorService healthChecks;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, BooleanSupplier primaryRequired,
+                                        Runnable writeCommitted, Duration healthCheckInterval, Duration maxLag) {
+        super(new PrimaryDataSource(primary, writeCommitted));
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.primaryRequired = primaryRequired;
+        this.maxLag = maxLag;
+        setReadOnlyDataSource(new ReplicaDataSource());
+        // Replicas start out of rotation, reads go to the primary until the first check passes
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::runHealthChecks, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runHealthChecks() {
+        try {
+            checkReplicas();
+        } catch (RuntimeException e) {
+            log.error("Read replica health check failed", e);
+        }
+    }
+
+    public synchronized void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                lag.next();
+                double lagSeconds = lag.getDouble(1);
+                if (lagSeconds * 1000 > maxLag.toMillis()) {
+                    markDown(replica, String.format("%.1fs behind the primary", lagSeconds));
+                } else if (!replica.healthy) {
+                    log.info("Read replica {} is taking reads", replica.pool.getPoolName());
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    // Routing metrics, plus the Hikari metrics of the replica pools under their pool names
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todo.datasource.replicas.healthy", this, ReadReplicaRoutingDataSource::healthyReplicas)
+                .register(registry);
+        FunctionCounter.builder("todo.datasource.reads", replicaReads, LongAdder::sum)
+                .tag("target", "replica")
+                .register(registry);
+        FunctionCounter.builder("todo.datasource.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary")
+                .register(registry);
+        for (Replica replica : replicas) {
+            if (replica.pool.getMetricsTrackerFactory() == null) {
+                replica.pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecks.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            log.warn("Read replica {} taken out of rotation: {}", replica.pool.getPoolName(), reason);
+            replica.healthy = false;
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+
+    // Connections for everything that is not read-only, and for read-only work that has to stay on the primary
+    private static final class PrimaryDataSource extends DelegatingDataSource {
+        private final Runnable writeCommitted;
+
+        private PrimaryDataSource(DataSource primary, Runnable writeCommitted) {
+            super(primary);
+            this.writeCommitted = writeCommitted;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            if (TransactionSynchronizationManager.isSynchronizationActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && TransactionSynchronizationManager.getSynchronizations().stream().noneMatch(ReportCommit.class::isInstance)) {
+                TransactionSynchronizationManager.registerSynchronization(new ReportCommit(writeCommitted));
+            }
+            return connection;
+        }
+    }
+
+    // Runs on the committing thread, before the response goes out
+    private record ReportCommit(Runnable writeCommitted) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            writeCommitted.run();
+        }
+    }
+
+    // Connections for read-only work
+    private final class ReplicaDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!primaryRequired.getAsBoolean()) {
+                for (int i = 0; i < replicas.size(); i++) {
+                    Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+                    if (!replica.healthy) {
+                        continue;
+                    }
+                    try {
+                        Connection connection = replica.pool.getConnection();
+                        replicaReads.increment();
+                        return connection;
+                    } catch (SQLException e) {
+                        markDown(replica, e.getMessage());
+                    }
+                }
+            }
+            // The proxy leaves read-only to this data source; the pool resets it when the connection returns
+            Connection connection = obtainTargetDataSource().getConnection();
+            try {
+                connection.setReadOnly(true);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            primaryReads.increment();
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return obtainTargetDataSource().getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.todoapp.todo_server.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Spring Boot already times every repository call as spring.data.repository.invocations (the query
+// counter, tagged by repository, method and state). This adds todo.repository.rows, the number of
+// rows each call returned, for methods returning a collection, map, slice or Optional.
+@Configuration
+public class RepositoryMetricsConfig {
+
+    // Static so the post-processor does not pull this configuration, or the registry, in early
+    @Bean
+    public static BeanPostProcessor repositoryRowCountPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RowCountInterceptor(
+                                    meterRegistry, repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class RowCountInterceptor implements MethodInterceptor {
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final String repository;
+        private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+        RowCountInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String repository) {
+            this.meterRegistry = meterRegistry;
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            int rows = rowCount(result);
+            if (rows >= 0) {
+                summaries.computeIfAbsent(invocation.getMethod(), method -> DistributionSummary.builder("todo.repository.rows")
+                                .tag("repository", repository)
+                                .tag("method", method.getName())
+                                .baseUnit("rows")
+                                .register(meterRegistry.getObject()))
+                        .record(rows);
+            }
+            return result;
+        }
+
+        // -1 for results that are not a row set (counts, booleans, streams that are still open)
+        private static int rowCount(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Map<?, ?> map) {
+                return map.size();
+            }
+            if (result instanceof Slice<?> slice) {
+                return slice.getNumberOfElements();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            return -1;
+        }
+    }
+}
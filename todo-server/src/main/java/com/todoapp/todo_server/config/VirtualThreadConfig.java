@@ -0,0 +1,36 @@
+package com.todoapp.todo_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// spring.threads.virtual.enabled=true runs Tomcat requests, and so every blocking repository call,
+// on virtual threads. The pool keeps its size, and the limiter below keeps the virtual threads from
+// stampeding it; unless todo.datasource.limiter.max-concurrency is set it admits as many as the pool holds.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${todo.datasource.limiter.max-concurrency:0}") int maxConcurrency,
+            @Value("${todo.datasource.limiter.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    int permits = maxConcurrency > 0 ? maxConcurrency
+                            : bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                    return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -7,19 +7,28 @@ import com.todoapp.todo_server.entity.Roles;
 import com.todoapp.todo_server.entity.UserEntity;
 import com.todoapp.todo_server.repository.UserRepository;
 import com.todoapp.todo_server.security.JWTGenerator;
+import com.todoapp.todo_server.security.PasswordHashingExecutor;
+import com.todoapp.todo_server.security.PrincipalCache;
+import com.todoapp.todo_server.service.ReadYourWrites;
+import com.todoapp.todo_server.service.RoleRegistry;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import com.todoapp.todo_server.repository.RoleRepository;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping(path = "/api/auth")
@@ -27,58 +36,93 @@ import java.util.Collections;
 public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final JWTGenerator jwtGenerator;
+    private final PrincipalCache principalCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final Executor applicationTaskExecutor;
     @Autowired
-    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, JWTGenerator jwtGenerator) {
+    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder, JWTGenerator jwtGenerator, PrincipalCache principalCache, PasswordHashingExecutor passwordHashingExecutor,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor applicationTaskExecutor) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
         this.jwtGenerator = jwtGenerator;
+        this.principalCache = principalCache;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.applicationTaskExecutor = applicationTaskExecutor;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginDTO loginDTO) {
+    public CompletableFuture<ResponseEntity<AuthResponseDTO>> login(@RequestBody LoginDTO loginDTO) {
         try {
-            if(!userRepository.existsByUsername(loginDTO.getUsername())) {
-                log.error("No user with username: {} exists", loginDTO.getUsername());
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-            }
-            log.info("User {} found!",loginDTO.getUsername());
             log.info("Setting up JWT Token for user {}...", loginDTO.getUsername());
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = jwtGenerator.generateToken(authentication);
-            log.info("Generated JWT Token for user {}", loginDTO.getUsername());
-            return new ResponseEntity<>(new AuthResponseDTO(token), HttpStatus.ACCEPTED);
+            // Acting as the user, so a login right after register or a rehashed password reads the primary
+            return passwordHashingExecutor.submit(() -> ReadYourWrites.actingAs(loginDTO.getUsername(), () -> authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(loginDTO.getUsername(), loginDTO.getPassword()))))
+                    .thenApply(authentication -> {
+                        String token = jwtGenerator.generateToken(authentication);
+                        log.info("Generated JWT Token for user {}", loginDTO.getUsername());
+                        return new ResponseEntity<>(new AuthResponseDTO(token), HttpStatus.ACCEPTED);
+                    })
+                    .exceptionally(e -> {
+                        if (e.getCause() instanceof AuthenticationException) {
+                            log.error("Authentication failed for user {}", loginDTO.getUsername());
+                            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+                        }
+                        log.error(e);
+                        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                    });
+        } catch (RejectedExecutionException e) {
+            log.error(e);
+            return CompletableFuture.completedFuture(serviceUnavailable());
         } catch (Exception e) {
             log.error(e);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
         }
     }
 
     @PostMapping("/register/{role}")
-    public ResponseEntity<String> register(@RequestBody RegisterDTO registerDTO, @PathVariable String role) {
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterDTO registerDTO, @PathVariable String role) {
         try {
-            if(userRepository.existsByUsername(registerDTO.getUsername())) {
-                log.error("User {} already exists!", registerDTO.getUsername());
-                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-            }
             log.info("Setting up new user...");
-            UserEntity user = new UserEntity();
-            user.setUsername(registerDTO.getUsername());
-            user.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
-            Roles roles = roleRepository.findByRoleName(role.equalsIgnoreCase("admin")? "ADMIN" : "USER").get();
-            user.setRolesList(Collections.singleton(roles));
-            userRepository.save(user);
-            log.info("User {} registered successfully with role: {}", registerDTO.getUsername(), roles.getRoleName());
-            return new ResponseEntity<>("User registered!", HttpStatus.CREATED);
+            Roles roles = roleRegistry.getByName(role.equalsIgnoreCase("admin")? "ADMIN" : "USER");
+            // Only the hash runs on the hashing pool; the insert goes to the executor Spring MVC runs async
+            // requests on (virtual threads with spring.threads.virtual.enabled), so BCrypt threads never wait on the database
+            return passwordHashingExecutor.submit(() -> passwordEncoder.encode(registerDTO.getPassword()))
+                    .thenApplyAsync(encodedPassword -> {
+                        UserEntity user = new UserEntity();
+                        user.setUsername(registerDTO.getUsername());
+                        user.setPassword(encodedPassword);
+                        user.setRolesList(Collections.singleton(roles));
+                        ReadYourWrites.actingAs(user.getUsername(), () -> userRepository.saveAndFlush(user));
+                        principalCache.evict(user.getUsername());
+                        log.info("User {} registered successfully with role: {}", registerDTO.getUsername(), roles.getRoleName());
+                        return new ResponseEntity<>("User registered!", HttpStatus.CREATED);
+                    }, applicationTaskExecutor)
+                    .exceptionally(e -> {
+                        // Duplicate usernames are caught by uk_users_username instead of a racy pre-check
+                        if (e.getCause() instanceof DataIntegrityViolationException) {
+                            log.error("User {} already exists!", registerDTO.getUsername());
+                            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                        }
+                        log.error(e);
+                        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                    });
+        } catch (RejectedExecutionException e) {
+            log.error(e);
+            return CompletableFuture.completedFuture(serviceUnavailable());
         } catch (Exception e) {
             log.error(e);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
         }
     }
+
+    private static <T> ResponseEntity<T> serviceUnavailable() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
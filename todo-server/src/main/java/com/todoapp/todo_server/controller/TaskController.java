@@ -1,21 +1,39 @@
 package com.todoapp.todo_server.controller;
 
+import com.todoapp.todo_server.dto.TaskAssignmentDTO;
+import com.todoapp.todo_server.dto.TaskChangesDTO;
+import com.todoapp.todo_server.dto.TaskCollectionVersionDTO;
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.dto.TaskPageDTO;
+import com.todoapp.todo_server.dto.TaskStatusSummaryDTO;
+import com.todoapp.todo_server.dto.TaskStatusUpdateDTO;
 import com.todoapp.todo_server.entity.Roles;
 import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
 import com.todoapp.todo_server.entity.UserEntity;
 import com.todoapp.todo_server.repository.TaskRepository;
 import com.todoapp.todo_server.repository.UserRepository;
 import com.todoapp.todo_server.service.TaskService;
 
+import jakarta.persistence.OptimisticLockException;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Role;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.lang.module.ResolutionException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +41,8 @@ import java.util.Optional;
 @RestController
 @Log4j2
 public class TaskController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     public TaskService taskService;
 
@@ -30,14 +50,15 @@ public class TaskController {
     public UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks() {
+    public ResponseEntity<List<?>> getAllTasks(@RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) List<String> fields) {
         try {
-            List<Task> tasks = taskService.getAllTasks();
-            if(tasks.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(tasks, HttpStatus.OK);
-        }catch (Exception e) {
+            return toPageResponse(taskService.getTasksPage(null, null, null, after, limit, fields));
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
             log.error(e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -45,13 +66,15 @@ public class TaskController {
     }
 
     @GetMapping("/search/{title}")
-    public ResponseEntity<List<Task>> searchTasksByName(@PathVariable String title) {
+    public ResponseEntity<List<?>> searchTasksByName(@PathVariable String title,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) List<String> fields) {
         try {
-            List<Task> tasks = taskService.getTasksByTitle(title);
-            if(tasks.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
-            return new ResponseEntity<>(tasks, HttpStatus.OK);
+            return toPageResponse(taskService.getTasksPage(null, null, title, after, limit, fields));
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             log.error(e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -60,24 +83,98 @@ public class TaskController {
 
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Task>> getTasksAssignedToUser(@PathVariable Long userId) {
+    public ResponseEntity<List<?>> getTasksAssignedToUser(@PathVariable Long userId,
+                                                          @RequestParam(required = false) String status,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(required = false) List<String> fields,
+                                                          WebRequest request) {
         try {
-            List<Task> tasks = taskService.getTasksByUserId(userId);
-            if(tasks.isEmpty()) {
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            // Answered from the digest alone; the list is only loaded when it changed.
+            // No Last-Modified here, deletes do not move max(updated_at).
+            TaskPageDTO page = taskService.getTasksPageIfModified(userId, TaskStatus.parse(status), after, limit, fields,
+                    version -> request.checkNotModified(toCollectionETag(version, status, after, limit, fields)));
+            if (page == null) {
+                return null;
             }
-            return new ResponseEntity<>(tasks, HttpStatus.OK);
+            return toPageResponse(page);
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Open, in progress and done counts for dashboards, without reading the tasks themselves
+    @GetMapping("/summary/user/{userId}")
+    public ResponseEntity<TaskStatusSummaryDTO> getTaskStatusSummary(@PathVariable Long userId) {
+        try {
+            return new ResponseEntity<>(taskService.getTaskStatusSummary(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // Delta sync: pass nextToken back as since until hasMore is false, then keep it for the next sync
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesDTO> getTaskChanges(@RequestParam(required = false) String since,
+                                                         @RequestParam(required = false) Long userId,
+                                                         @RequestParam(required = false) Integer limit) {
+        try {
+            return new ResponseEntity<>(taskService.getTaskChanges(userId, since, limit), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             log.error(e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Push channel for the caller's own tasks; after a reconnect, GET /changes fills the gap
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTaskEvents(Principal principal) {
+        try {
+            return ResponseEntity.ok(taskService.subscribeToTaskEvents(principal.getName()));
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(required = false) Long userId,
+                                                             @RequestParam(required = false) String status) {
+        TaskStatus taskStatus;
+        try {
+            taskStatus = TaskStatus.parse(status);
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                taskService.exportTasks(userId, taskStatus, out);
+            } catch (Exception e) {
+                log.error(e);
+                throw new IOException(e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
         try {
             Task task = taskService.getTaskById(id);
-            return new ResponseEntity<>(task, HttpStatus.OK);
+            // A matching If-None-Match or If-Modified-Since turns this into a 304 without a body
+            return ResponseEntity.ok()
+                    .eTag(toETag(task))
+                    .lastModified(task.getUpdatedAt())
+                    .body(task);
         }catch (Exception e) {
             log.error(e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -95,6 +192,42 @@ public class TaskController {
         }
     }
 
+    @PostMapping("/add/batch")
+    public ResponseEntity<List<Task>> addTasks(@RequestBody List<TaskCreateDTO> taskRequests) {
+        try {
+            List<Task> newTasks = taskService.addTasksAndAssign(taskRequests);
+            return new ResponseEntity<>(newTasks, HttpStatus.CREATED);
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PutMapping("/batch/assign")
+    public ResponseEntity<List<Task>> assignTasks(@RequestBody List<TaskAssignmentDTO> assignments) {
+        try {
+            List<Task> assignedTasks = taskService.assignTasksToUsers(assignments);
+            return new ResponseEntity<>(assignedTasks, HttpStatus.OK);
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PutMapping("/batch/update/status")
+    public ResponseEntity<List<Task>> updateTaskStatuses(@RequestBody List<TaskStatusUpdateDTO> updates) {
+        try {
+            List<Task> updatedTasks = taskService.updateTaskStatuses(updates);
+            return new ResponseEntity<>(updatedTasks, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @PutMapping("/{id}/assign/user/{userId}")
     public ResponseEntity<Task> addTask(@PathVariable Long userId, @PathVariable Long id) {
         try {
@@ -107,10 +240,17 @@ public class TaskController {
     }
 
     @PutMapping("/{id}/update/status/{status}")
-    public ResponseEntity<Task> updateTaskStatus(@PathVariable Long id, @PathVariable String status) {
+    public ResponseEntity<Task> updateTaskStatus(@PathVariable Long id, @PathVariable String status,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Task updatedTaskStatus = taskService.updateTaskStatus(id, status);
-            return new ResponseEntity<>(updatedTaskStatus, HttpStatus.OK);
+            Task updatedTaskStatus = taskService.updateTaskStatus(id, TaskStatus.parse(status), parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(toETag(updatedTaskStatus)).body(updatedTaskStatus);
+        } catch (IllegalArgumentException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (OptimisticLockException e) {
+            log.error(e);
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         } catch (Exception e) {
             log.error(e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -140,4 +280,48 @@ public class TaskController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    private static String toETag(Task task) {
+        return "\"" + task.getVersion() + "\"";
+    }
+
+    // Weak: the list is the same in every encoding and may be gzipped, and Tomcat does not compress
+    // responses that carry a strong ETag. The query parameters are part of it, each page and projection is
+    // its own representation of the list.
+    private static String toCollectionETag(TaskCollectionVersionDTO version, String status, String after,
+                                           Integer limit, List<String> fields) {
+        String representation = String.join("\n", String.valueOf(version.getCount()),
+                String.valueOf(version.getLastChangeSeq()), String.valueOf(version.getChangeSeqSum()),
+                String.valueOf(status), String.valueOf(after), String.valueOf(limit), String.valueOf(fields));
+        return "W/\"" + DigestUtils.md5DigestAsHex(representation.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // If-Match carries the ETag from getTaskById, i.e. the quoted row version
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.parseLong(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    private ResponseEntity<List<?>> toPageResponse(TaskPageDTO page) {
+        if (page.getTasks().isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        // JSON, CBOR or Smile depending on Accept
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getTasks(), headers, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,9 @@
+package com.todoapp.todo_server.dto;
+
+import lombok.Data;
+
+@Data
+public class TaskAssignmentDTO {
+    private Long taskId;
+    private Long userId;
+}
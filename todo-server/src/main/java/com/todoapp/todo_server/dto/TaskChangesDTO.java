@@ -0,0 +1,25 @@
+package com.todoapp.todo_server.dto;
+
+import com.todoapp.todo_server.entity.Task;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskChangesDTO {
+    // Created or updated since the token
+    private List<Task> changed;
+    private List<Long> deleted;
+    // All tasks were deleted since the token: drop everything held locally before applying changed
+    private boolean reset;
+    private String nextToken;
+    private boolean hasMore;
+
+    public TaskChangesDTO(List<Task> changed, List<Long> deleted, boolean reset, String nextToken, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.reset = reset;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,19 @@
+package com.todoapp.todo_server.dto;
+
+import lombok.Data;
+
+// Validator for a user's task list, from the change_seq values the V2 triggers stamp on every insert, update
+// and reassignment. A write that keeps the count raises the newest change_seq; the sum also moves when a
+// write that took an older change_seq commits after a newer one. Null max and sum for a user without tasks.
+@Data
+public class TaskCollectionVersionDTO {
+    private long count;
+    private Long lastChangeSeq;
+    private Long changeSeqSum;
+
+    public TaskCollectionVersionDTO(Long count, Long lastChangeSeq, Long changeSeqSum) {
+        this.count = count;
+        this.lastChangeSeq = lastChangeSeq;
+        this.changeSeqSum = changeSeqSum;
+    }
+}
@@ -0,0 +1,12 @@
+package com.todoapp.todo_server.dto;
+
+import com.todoapp.todo_server.entity.TaskStatus;
+import lombok.Data;
+
+@Data
+public class TaskCreateDTO {
+    private String title;
+    private String description;
+    private TaskStatus status;
+    private Long userId;
+}
@@ -0,0 +1,29 @@
+package com.todoapp.todo_server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.todoapp.todo_server.entity.Task;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEventDTO {
+    public static final String CREATED = "created";
+    public static final String ASSIGNED = "assigned";
+    public static final String STATUS = "status";
+    public static final String DELETED = "deleted";
+    // Sent to the previous owner of a reassigned task; the new owner gets assigned
+    public static final String UNASSIGNED = "unassigned";
+    // Every task was deleted
+    public static final String RESET = "reset";
+
+    private String type;
+    private Long taskId;
+    // The task as committed; absent for deleted, unassigned and reset
+    private Task task;
+
+    public TaskEventDTO(String type, Long taskId, Task task) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+    }
+}
@@ -0,0 +1,16 @@
+package com.todoapp.todo_server.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskPageDTO {
+    private List<?> tasks;
+    private String nextCursor;
+
+    public TaskPageDTO(List<?> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,29 @@
+package com.todoapp.todo_server.dto;
+
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.TaskStatusCount;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class TaskStatusSummaryDTO {
+    private Long userId;
+    // Every status is listed, with 0 for those the user has no tasks in
+    private Map<TaskStatus, Long> counts;
+    private long total;
+
+    public TaskStatusSummaryDTO(Long userId, List<TaskStatusCount> statusCounts) {
+        this.userId = userId;
+        this.counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (TaskStatusCount statusCount : statusCounts) {
+            counts.put(statusCount.getTaskStatus(), statusCount.getTaskCount());
+            total += statusCount.getTaskCount();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.todoapp.todo_server.dto;
+
+import com.todoapp.todo_server.entity.TaskStatus;
+import lombok.Data;
+
+@Data
+public class TaskStatusUpdateDTO {
+    private Long taskId;
+    private TaskStatus status;
+}
@@ -4,18 +4,32 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Getter
 @Entity
-@Table(name = "tasks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_status_id", columnList = "user_id, status, id"),
+        @Index(name = "idx_tasks_user_id_version", columnList = "user_id, id, version, updated_at"),
+        @Index(name = "idx_tasks_change_seq", columnList = "change_seq"),
+        @Index(name = "idx_tasks_user_change_seq", columnList = "user_id, change_seq"),
+        @Index(name = "idx_tasks_change_xid", columnList = "change_xid")
+})
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
 
@@ -25,8 +39,33 @@ public class Task {
     @Setter
     private String description;
 
+    // A smallint code, see TaskStatusConverter
     @Setter
-    private String status;
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private TaskStatus status = TaskStatus.OPEN;
+
+    // Bumped on every write, including the native UPDATE ... RETURNING paths in TaskRepository
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @ColumnDefault("now()")
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // Position in the delta sync log, stamped by the database on every insert and update (see
+    // the V2 migration). Never written by Hibernate, so cached instances may hold an old value.
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long changeSeq;
+
+    // The writing transaction's id, stamped with change_seq (see the V2 migration)
+    @Column(name = "change_xid", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long changeXid;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
@@ -0,0 +1,51 @@
+package com.todoapp.todo_server.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+// One row per task mutation, inserted in the writing transaction by TaskOutboxWriter and
+// removed by TaskOutboxRelay once every TaskEventSink has taken it, or dead-lettered after
+// todo.outbox.relay.max-attempts failed deliveries.
+@Getter
+@Entity
+@Table(name = "task_outbox", indexes = {
+        @Index(name = "idx_task_outbox_task_id", columnList = "task_id, id")
+})
+public class TaskOutboxEvent {
+
+    // Drawn after the task row is written, so per task it follows commit order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_seq")
+    @SequenceGenerator(name = "task_outbox_seq", sequenceName = "task_outbox_seq", allocationSize = 1)
+    private Long id;
+
+    // Null for events about all tasks, e.g. reset
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String type;
+
+    // TaskEventDTO as JSON
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @ColumnDefault("now()")
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // Failed deliveries so far
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int attempts;
+
+    // Kept for inspection but no longer relayed, and no longer holds back the later events of its task
+    @Column(name = "dead_lettered_at")
+    private Instant deadLetteredAt;
+}
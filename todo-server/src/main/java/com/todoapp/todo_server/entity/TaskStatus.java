@@ -0,0 +1,48 @@
+package com.todoapp.todo_server.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Stored as its smallint code, see TaskStatusConverter. Codes are written to tasks.status and
+// task_status_counts.status, so a code is never changed or reused once released.
+public enum TaskStatus {
+    OPEN((short) 0),
+    IN_PROGRESS((short) 1),
+    DONE((short) 2);
+
+    private final short code;
+
+    TaskStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TaskStatus fromCode(short code) {
+        for (TaskStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status code: " + code);
+    }
+
+    // Case-insensitive, with "-" or " " accepted for "_", so "in-progress" is IN_PROGRESS
+    @JsonCreator
+    public static TaskStatus parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+        for (TaskStatus status : values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status: " + value + ", expected one of " + Arrays.toString(values()));
+    }
+}
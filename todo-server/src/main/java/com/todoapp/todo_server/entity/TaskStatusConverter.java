@@ -0,0 +1,19 @@
+package com.todoapp.todo_server.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Explicit codes instead of EnumType.ORDINAL, so reordering the constants cannot remap stored rows
+@Converter(autoApply = true)
+public class TaskStatusConverter implements AttributeConverter<TaskStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TaskStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public TaskStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : TaskStatus.fromCode(code);
+    }
+}
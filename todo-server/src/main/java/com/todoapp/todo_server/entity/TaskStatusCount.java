@@ -0,0 +1,43 @@
+package com.todoapp.todo_server.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+// Number of tasks per user and status. Written by the task triggers in db/migration/V3__task_status_counts.sql,
+// in the transaction that writes the tasks, never by the application; TaskStatusCountReconciler repairs drift.
+@Getter
+@Entity
+@Immutable
+@IdClass(TaskStatusCount.Key.class)
+@Table(name = "task_status_counts")
+public class TaskStatusCount {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // The TaskStatus code; attribute converters do not apply to id attributes
+    @Id
+    private Short status;
+
+    @Column(name = "task_count", nullable = false)
+    private Long taskCount;
+
+    public TaskStatus getTaskStatus() {
+        return TaskStatus.fromCode(status);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Short status;
+    }
+}
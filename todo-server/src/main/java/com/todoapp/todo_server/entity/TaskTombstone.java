@@ -0,0 +1,41 @@
+package com.todoapp.todo_server.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Written by the task triggers (db/migration V2), never by the application:
+// - a deleted task, or a task reassigned away from userId, leaves one row;
+// - TRUNCATE clears the table and leaves a single reset marker with no taskId.
+@Getter
+@Entity
+@Immutable
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_user_change_seq", columnList = "user_id, change_seq"),
+        @Index(name = "idx_task_tombstones_change_xid", columnList = "change_xid")
+})
+public class TaskTombstone {
+
+    // Shares task_change_seq with Task.changeSeq, so tombstones and updates interleave in one order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_change_seq")
+    @SequenceGenerator(name = "task_change_seq", sequenceName = "task_change_seq", allocationSize = 1)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "change_xid")
+    private Long changeXid;
+
+    @ColumnDefault("now()")
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+}
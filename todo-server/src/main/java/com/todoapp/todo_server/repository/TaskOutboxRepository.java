@@ -0,0 +1,43 @@
+package com.todoapp.todo_server.repository;
+
+import com.todoapp.todo_server.entity.TaskOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutboxEvent, Long> {
+
+    // Claims the oldest pending event of each task. An event is only a candidate while nothing older
+    // is pending for its task (or, for reset events, at all), so a relay holding a task's head blocks
+    // every other relay from that task until it commits. The probes use idx_task_outbox_task_id.
+    // Dead-lettered events are not pending.
+    @Query(value = "select o.* from task_outbox o " +
+            "where o.dead_lettered_at is null " +
+            "and not exists (select 1 from task_outbox e where e.task_id = o.task_id and e.id < o.id and e.dead_lettered_at is null) " +
+            "and not exists (select 1 from task_outbox r where r.task_id is null and r.id < o.id and r.dead_lettered_at is null) " +
+            "and (o.task_id is not null or not exists (select 1 from task_outbox e where e.id < o.id and e.dead_lettered_at is null)) " +
+            "order by o.id limit :limit for update skip locked", nativeQuery = true)
+    List<TaskOutboxEvent> lockPendingHeads(@Param("limit") int limit);
+
+    @Query("select o from TaskOutboxEvent o where o.taskId in :taskIds and o.deadLetteredAt is null order by o.id limit :limit")
+    List<TaskOutboxEvent> findPendingForTasks(@Param("taskIds") Collection<Long> taskIds, @Param("limit") int limit);
+
+    long countByDeadLetteredAtIsNull();
+
+    // Counts a failed delivery of each event and dead-letters those that reached maxAttempts
+    @Transactional
+    @Modifying
+    @Query("update TaskOutboxEvent o set o.attempts = o.attempts + 1, " +
+            "o.deadLetteredAt = case when o.attempts + 1 >= :maxAttempts then current_timestamp end where o.id in :ids")
+    int recordFailedAttempt(@Param("ids") Collection<Long> ids, @Param("maxAttempts") int maxAttempts);
+
+    @Query("select o from TaskOutboxEvent o where o.id in :ids and o.deadLetteredAt is not null")
+    List<TaskOutboxEvent> findDeadLettered(@Param("ids") Collection<Long> ids);
+}
@@ -1,16 +1,74 @@
 package com.todoapp.todo_server.repository;
 
+import com.todoapp.todo_server.dto.TaskCollectionVersionDTO;
 import com.todoapp.todo_server.entity.Task;
-import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.entity.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
-    List<Task> findAllByUserAssigned(UserEntity user);
+    // Served by the idx_tasks_title_trgm GIN index on lower(title), see db/migration/V2__task_search_and_delta_sync.sql
+    @Query("select t from Task t where lower(t.title) like lower(:pattern) escape '\\'")
+    List<Task> findAllByTitleLike(@Param("pattern") String pattern);
+
+    // Forward-only cursor: Postgres only streams with a fetch size inside a transaction.
+    // Exported rows bypass the second-level cache so an export does not flush it.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select t from Task t where (:userId is null or t.userAssigned.id = :userId) " +
+            "and (:status is null or t.status = :status) order by t.id")
+    Stream<Task> streamAllForExport(@Param("userId") Long userId, @Param("status") TaskStatus status);
+
+    // Single-statement writes: the row comes back from RETURNING instead of a findById before the update.
+    // The returned row is kept out of the second-level cache, see TaskCacheInvalidator.
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    // A null expected version updates unconditionally; status is the TaskStatus code
+    @Query(value = "update tasks set status = :status, version = version + 1, updated_at = now() " +
+            "where id = :id and (cast(:version as bigint) is null or version = :version) returning *", nativeQuery = true)
+    Optional<Task> updateStatusReturning(@Param("id") Long id, @Param("status") short status, @Param("version") Long version);
+
+    // Batch form of the above, see also TaskRepositoryCustom.assignUsersReturning. One statement per batch,
+    // so the V3 counters trigger sees all of its rows at once and takes the counter locks in key order;
+    // ids and values are parallel arrays.
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query(value = "update tasks t set status = u.status, version = t.version + 1, updated_at = now() " +
+            "from unnest(cast(:ids as bigint[]), cast(:statuses as smallint[])) as u(id, status) " +
+            "where t.id = u.id returning t.*", nativeQuery = true)
+    List<Task> updateStatusesReturning(@Param("ids") Long[] ids, @Param("statuses") Short[] statuses);
+
+    // An index-only scan of the user's range of idx_tasks_user_change_seq, so answering a conditional GET
+    // reads no table rows. Not query-cached: every write to the user's tasks changes it.
+    @Query("select new com.todoapp.todo_server.dto.TaskCollectionVersionDTO(count(t), max(t.changeSeq), sum(t.changeSeq)) " +
+            "from Task t where t.userAssigned.id = :userId")
+    TaskCollectionVersionDTO findCollectionVersion(@Param("userId") Long userId);
+
+    @Transactional
+    @Query(value = "delete from tasks where id = :id returning user_id", nativeQuery = true)
+    Optional<Long> deleteReturningUserId(@Param("id") Long id);
+
+    // A bulk delete also evicts the cached tasks and the queries over them
+    @Transactional
+    @Modifying
+    @Query("delete from Task")
+    int deleteAllTasks();
 
 }
@@ -0,0 +1,28 @@
+package com.todoapp.todo_server.repository;
+
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+public interface TaskRepositoryCustom {
+
+    List<Task> findPage(Long userId, TaskStatus status, String titlePattern, long afterId, int limit);
+
+    List<Map<String, Object>> findPageProjection(Long userId, TaskStatus status, String titlePattern, long afterId, int limit, List<String> fields);
+
+    List<Task> findAllByUser(Long userId, TaskStatus status);
+
+    // Both keyed by change_seq, in change order; sinceXmin as in TaskCursor.ChangeToken, null when there are no late commits to look for
+    Map<Long, Task> findChangedSince(Long userId, long since, Long sinceXmin, long until, int limit);
+
+    Map<Long, Long> findDeletedSince(Long userId, long since, Long sinceXmin, long until, int limit);
+
+    // Reassigns each task in one statement and returns it with the owner it had before. A missing user
+    // surfaces as a foreign key violation on user_id; ids and user ids are parallel arrays.
+    List<Reassigned> assignUsersReturning(Long[] ids, Long[] userIds);
+
+    record Reassigned(Task task, Long previousUserId) {
+    }
+}
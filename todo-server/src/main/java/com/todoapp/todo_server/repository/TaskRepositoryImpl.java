@@ -0,0 +1,225 @@
+package com.todoapp.todo_server.repository;
+
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.TaskTombstone;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keyset pages ordered by id: "id > :after order by id limit :n" costs the same on every page,
+// unlike OFFSET which has to walk over all the skipped rows.
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+    public static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "title", "description", "status");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Task> findPage(Long userId, TaskStatus status, String titlePattern, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(root)
+                .where(pageFilter(cb, root, userId, status, titlePattern, afterId))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Filters on the user_id column directly, so the user row is never read
+    @Override
+    public List<Task> findAllByUser(Long userId, TaskStatus status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(root)
+                .where(pageFilter(cb, root, userId, status, null, 0))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageProjection(Long userId, TaskStatus status, String titlePattern, long afterId, int limit, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown task field: " + field);
+            }
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections)
+                .where(pageFilter(cb, root, userId, status, titlePattern, afterId))
+                .orderBy(cb.asc(root.get("id")));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setMaxResults(limit)
+                .getResultList();
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Changes in (since, until], preceded by the ones at or below since made by transactions from sinceXmin on,
+    // which may have committed after the token was issued. Both come back in change order.
+    @Override
+    public Map<Long, Task> findChangedSince(Long userId, long since, Long sinceXmin, long until, int limit) {
+        Map<Long, Task> changed = new LinkedHashMap<>();
+        if (sinceXmin != null) {
+            changed.putAll(findChanged(userId, 0, since, sinceXmin, limit));
+        }
+        if (changed.size() < limit) {
+            changed.putAll(findChanged(userId, since, until, null, limit - changed.size()));
+        }
+        return changed;
+    }
+
+    @Override
+    public Map<Long, Long> findDeletedSince(Long userId, long since, Long sinceXmin, long until, int limit) {
+        Map<Long, Long> deleted = new LinkedHashMap<>();
+        if (sinceXmin != null) {
+            deleted.putAll(findDeleted(userId, 0, since, sinceXmin, limit));
+        }
+        if (deleted.size() < limit) {
+            deleted.putAll(findDeleted(userId, since, until, null, limit - deleted.size()));
+        }
+        return deleted;
+    }
+
+    // change_seq > ? and change_seq <= ? [and user_id = ?] order by change_seq is a range scan on
+    // idx_tasks_change_seq or idx_tasks_user_change_seq, with change_xid >= ? one on idx_tasks_change_xid.
+    // change_seq is selected next to the entity because a cached Task may still hold an older one.
+    private Map<Long, Task> findChanged(Long userId, long from, long to, Long minXid, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(root.get("changeSeq"), from));
+        predicates.add(cb.lessThanOrEqualTo(root.get("changeSeq"), to));
+        if (minXid != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("changeXid"), minXid));
+        }
+        if (userId != null) {
+            predicates.add(cb.equal(root.get("userAssigned").get("id"), userId));
+        }
+        query.multiselect(root.get("changeSeq"), root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("changeSeq")));
+
+        Map<Long, Task> changed = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            changed.put(tuple.get(0, Long.class), tuple.get(1, Task.class));
+        }
+        return changed;
+    }
+
+    // Tombstones of tasks that are back (reassigned to the user again) are left out
+    private Map<Long, Long> findDeleted(Long userId, long from, long to, Long minXid, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TaskTombstone> root = query.from(TaskTombstone.class);
+
+        Subquery<Long> alive = query.subquery(Long.class);
+        Root<Task> task = alive.from(Task.class);
+        List<Predicate> aliveFilter = new ArrayList<>();
+        aliveFilter.add(cb.equal(task.get("id"), root.get("taskId")));
+        if (userId != null) {
+            aliveFilter.add(cb.equal(task.get("userAssigned").get("id"), userId));
+        }
+        alive.select(task.get("id")).where(aliveFilter.toArray(new Predicate[0]));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(root.get("changeSeq"), from));
+        predicates.add(cb.lessThanOrEqualTo(root.get("changeSeq"), to));
+        if (minXid != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("changeXid"), minXid));
+        }
+        predicates.add(cb.isNotNull(root.get("taskId")));
+        if (userId != null) {
+            predicates.add(cb.equal(root.get("userId"), userId));
+        }
+        predicates.add(cb.not(cb.exists(alive)));
+        query.multiselect(root.get("changeSeq"), root.get("taskId"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("changeSeq")));
+
+        Map<Long, Long> deleted = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            deleted.put(tuple.get(0, Long.class), tuple.get(1, Long.class));
+        }
+        return deleted;
+    }
+
+    // The old rows are locked before the update reads their owner, so a concurrent reassignment is
+    // seen as the previous owner rather than the one from this statement's snapshot
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<Reassigned> assignUsersReturning(Long[] ids, Long[] userIds) {
+        List<Object[]> rows = entityManager.createNativeQuery("update tasks t set user_id = u.user_id, " +
+                        "version = t.version + 1, updated_at = now() " +
+                        "from unnest(cast(:ids as bigint[]), cast(:userIds as bigint[])) as u(id, user_id) " +
+                        "join (select id, user_id from tasks where id = any(cast(:ids as bigint[])) for update) as old " +
+                        "on old.id = u.id where t.id = u.id returning t.*, old.user_id as previous_user_id")
+                .unwrap(NativeQuery.class)
+                .addEntity(Task.class)
+                .addScalar("previous_user_id", StandardBasicTypes.LONG)
+                .setParameter("ids", ids)
+                .setParameter("userIds", userIds)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultList();
+        List<Reassigned> reassigned = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            reassigned.add(new Reassigned((Task) row[0], (Long) row[1]));
+        }
+        return reassigned;
+    }
+
+    // user_id = ? [and status = ?] and id > ? order by id is a range scan on idx_tasks_user_status_id
+    // or idx_tasks_user_id_version, see the indexes on Task
+    private Predicate[] pageFilter(CriteriaBuilder cb, Root<Task> root, Long userId, TaskStatus status, String titlePattern, long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+        if (userId != null) {
+            predicates.add(cb.equal(root.get("userAssigned").get("id"), userId));
+        }
+        if (status != null) {
+            predicates.add(cb.equal(root.get("status"), status));
+        }
+        if (titlePattern != null) {
+            predicates.add(cb.like(cb.lower(root.get("title")), cb.lower(cb.literal(titlePattern)), '\\'));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,43 @@
+package com.todoapp.todo_server.repository;
+
+import com.todoapp.todo_server.entity.TaskStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TaskStatusCountRepository extends JpaRepository<TaskStatusCount, TaskStatusCount.Key> {
+    // Held by TaskStatusCountReconciler for each batch, so two instances never repair the same drift twice
+    long RECONCILE_LOCK = 1952543596L;
+
+    // A primary key range scan of at most one row per status
+    List<TaskStatusCount> findAllByUserId(Long userId);
+
+    @Query(value = "select max(id) from (select id from users where id > :after order by id limit :limit) batch", nativeQuery = true)
+    Long findLastUserIdOfBatch(@Param("after") long after, @Param("limit") int limit);
+
+    @Query(value = "select pg_try_advisory_xact_lock(" + RECONCILE_LOCK + ")", nativeQuery = true)
+    boolean tryLockReconcile();
+
+    // Compares the counters of users in (after, upTo] with a count of their tasks and adds the difference.
+    // Both sides come from the statement's one snapshot, so writers that commit meanwhile are in neither and
+    // their own deltas still land on top of the repaired counter. Returns the user of every repaired counter.
+    @Transactional
+    @Query(value = "with actual as (" +
+            "select user_id, status, count(*) as task_count from tasks " +
+            "where user_id > :after and user_id <= :upTo group by user_id, status), " +
+            "counted as (" +
+            "select user_id, status, task_count from task_status_counts where user_id > :after and user_id <= :upTo), " +
+            "drift as (" +
+            "select user_id, status, coalesce(a.task_count, 0) - coalesce(c.task_count, 0) as delta " +
+            "from actual a full join counted c using (user_id, status)) " +
+            "insert into task_status_counts as t (user_id, status, task_count) " +
+            "select user_id, status, delta from drift where delta <> 0 order by user_id, status " +
+            "on conflict (user_id, status) do update set task_count = t.task_count + excluded.task_count " +
+            "returning user_id", nativeQuery = true)
+    List<Long> repairDrift(@Param("after") long after, @Param("upTo") long upTo);
+}
@@ -0,0 +1,29 @@
+package com.todoapp.todo_server.repository;
+
+import com.todoapp.todo_server.entity.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    // Served by the partial idx_task_tombstones_reset index. A null sinceXmin leaves out late commits.
+    @Query("select max(t.changeSeq) from TaskTombstone t where t.taskId is null and t.changeSeq <= :until " +
+            "and (t.changeSeq > :since or t.changeXid >= :sinceXmin)")
+    Long findLastReset(@Param("since") long since, @Param("sinceXmin") Long sinceXmin, @Param("until") long until);
+
+    // One statement, so the sequence is read after its snapshot was taken: a change at or below changeSeq
+    // that the snapshot cannot see was made by writersXmin or a later transaction. A fresh sequence
+    // reports last_value 1 before handing out 1.
+    @Query(value = "select (select case when is_called then last_value else last_value - 1 end from task_change_seq) as \"changeSeq\", " +
+            "pg_snapshot_xmin(pg_current_snapshot())::text::bigint as \"writersXmin\"", nativeQuery = true)
+    ChangeWatermark findChangeWatermark();
+
+    interface ChangeWatermark {
+        long getChangeSeq();
+
+        long getWritersXmin();
+    }
+}
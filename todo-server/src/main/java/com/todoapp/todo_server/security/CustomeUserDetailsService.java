@@ -8,6 +8,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,9 +18,11 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-public class CustomeUserDetailsService implements UserDetailsService {
+public class CustomeUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private PrincipalCache principalCache;
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         UserEntity user = userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("User not found!"));
@@ -27,6 +30,23 @@ public class CustomeUserDetailsService implements UserDetailsService {
 
     }
 
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    public UserDetails loadPrincipalByUsername(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, (name) -> {
+            UserDetails userDetails = loadUserByUsername(name);
+            return new User(userDetails.getUsername(), "", userDetails.getAuthorities());
+        });
+    }
+
+    public UserDetails loadPrincipalFromRoles(String username, Collection<String> roleNames) {
+        return new User(username, "", roleNames.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toSet()));
+    }
+
     private Collection<GrantedAuthority> mapRolesToGrantedAuthority(Set<Roles> roles) {
         return roles.stream().map((role) -> new SimpleGrantedAuthority(role.getRoleName())).collect(Collectors.toSet());
     }
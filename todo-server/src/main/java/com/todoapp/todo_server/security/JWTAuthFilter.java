@@ -4,40 +4,42 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-@Component
+
+@Log4j2
 public class JWTAuthFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JWTGenerator tokenGenerator;
+    private JWTVerifier jwtVerifier;
 
     @Autowired
     private CustomeUserDetailsService customeUserDetailsService;
 
+    // "database" resolves authorities through PrincipalCache, "token" rebuilds them from the roles claim
+    @Value("${todo.security.authorities-source:database}")
+    private String authoritiesSource;
 
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
         String token = getJWTfromRequest(request);
-        if(StringUtils.hasText(token) && tokenGenerator.validate(token)) {
-            String username = null;
-            try {
-                username = tokenGenerator.getUsernameFromJWT(token);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-            UserDetails userDetails = customeUserDetailsService.loadUserByUsername(username);
-            System.out.println(userDetails.getAuthorities().toString());
+        if(StringUtils.hasText(token)) {
+            VerifiedToken verifiedToken = jwtVerifier.verify(token);
+            UserDetails userDetails = "token".equalsIgnoreCase(authoritiesSource) && verifiedToken.getRoles() != null
+                    ? customeUserDetailsService.loadPrincipalFromRoles(verifiedToken.getUsername(), verifiedToken.getRoles())
+                    : customeUserDetailsService.loadPrincipalByUsername(verifiedToken.getUsername());
+            log.debug("Authenticated {} with authorities {}", userDetails.getUsername(), userDetails.getAuthorities());
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails,null, userDetails.getAuthorities());
             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -1,55 +1,48 @@
 package com.todoapp.todo_server.security;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.WeakKeyException;
-import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JWTGenerator {
+    private final SecretKey jwtSigninKey;
+    private final JWTVerifier jwtVerifier;
+
+    @Autowired
+    public JWTGenerator(SecretKey jwtSigninKey, JWTVerifier jwtVerifier) {
+        this.jwtSigninKey = jwtSigninKey;
+        this.jwtVerifier = jwtVerifier;
+    }
+
     public String generateToken(Authentication authentication) throws WeakKeyException {
         String username = authentication.getName();
+        List<String> roles = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
         Date currentDate = new Date();
         Date expirationDate = new Date(currentDate.getTime() + SecurityConstants.JWT_EXPIRATION);
         JwtBuilder builder = Jwts.builder()
                 .subject(username)
+                .claim(SecurityConstants.JWT_ROLES_CLAIM, roles)
                 .issuedAt(currentDate)
                 .expiration(expirationDate)
-                .signWith(getSigninKey());
+                .signWith(jwtSigninKey);
         return builder.compact();
     }
 
-    public String getUsernameFromJWT(String token) throws WeakKeyException {
-        return Jwts.parser()
-                .verifyWith(getSigninKey())
-                .build().parseSignedClaims(token).getPayload().getSubject();
+    public String getUsernameFromJWT(String token) {
+        return jwtVerifier.verify(token).getUsername();
     }
 
     public boolean validate(String token) {
-        try {
-            Jwts.parser().verifyWith(getSigninKey()).build().parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            throw new AuthenticationCredentialsNotFoundException("JWT expired!");
-        }
-    }
-
-    private SecretKey getSigninKey() throws WeakKeyException {
-
-        try {
-            byte[] secreteBytes = Decoders.BASE64.decode(SecurityConstants.JWT_SECRETES);
-            return Keys.hmacShaKeyFor(secreteBytes);
-        } catch (WeakKeyException e) {
-            throw new WeakKeyException("Your secret key is invalid!");
-        }
+        jwtVerifier.verify(token);
+        return true;
     }
 
 }
@@ -0,0 +1,94 @@
+package com.todoapp.todo_server.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Key and parser are built once; each token is parsed a single time. Recently verified
+// tokens can be kept in a small LRU that never outlives the token's own expiry.
+// todo.jwt.validation times every verify, cache hits included, tagged by outcome.
+@Component
+public class JWTVerifier {
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    @Autowired
+    public JWTVerifier(SecretKey jwtSigninKey,
+                       @Value("${todo.security.jwt.verified-cache.max-size:0}") long verifiedCacheMaxSize,
+                       MeterRegistry meterRegistry) {
+        this.parser = Jwts.parser().verifyWith(jwtSigninKey).build();
+        this.validTimer = Timer.builder("todo.jwt.validation").tag("outcome", "valid").register(meterRegistry);
+        this.invalidTimer = Timer.builder("todo.jwt.validation").tag("outcome", "invalid").register(meterRegistry);
+        this.verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .recordStats()
+                        .expireAfter(new Expiry<String, VerifiedToken>() {
+                            @Override
+                            public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                                if (verified.getExpiresAt() == null) {
+                                    return 0;
+                                }
+                                long remainingMillis = verified.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+                                return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                            }
+
+                            @Override
+                            public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                                return currentDuration;
+                            }
+
+                            @Override
+                            public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                                return currentDuration;
+                            }
+                        })
+                        .build()
+                : null;
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        }
+    }
+
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        try {
+            VerifiedToken verified = verifiedTokens == null ? parse(token) : verifiedTokens.get(token, this::parse);
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return verified;
+        } catch (RuntimeException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            List<?> roles = claims.get(SecurityConstants.JWT_ROLES_CLAIM, List.class);
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    roles == null ? null : roles.stream().map(String::valueOf).toList(),
+                    claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+        } catch (Exception e) {
+            throw new AuthenticationCredentialsNotFoundException("JWT expired!");
+        }
+    }
+}
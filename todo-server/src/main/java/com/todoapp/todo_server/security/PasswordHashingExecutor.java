@@ -0,0 +1,57 @@
+package com.todoapp.todo_server.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// BCrypt work (login authentication, register encoding) runs here instead of on request threads.
+// The queue is bounded; once it is full submit throws RejectedExecutionException so callers can
+// answer 503 straight away.
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+    private final ExecutorService executor;
+    private final Timer hashTimer;
+
+    public PasswordHashingExecutor(@Value("${todo.security.password-hashing.threads:0}") int threads,
+                                   @Value("${todo.security.password-hashing.queue-capacity:100}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        Counter rejections = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                (rejected, pool) -> {
+                    rejections.increment();
+                    throw new RejectedExecutionException("Password hashing queue is full");
+                });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, threadPool, "password-hashing");
+        this.hashTimer = Timer.builder("auth.password.hashing")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) throws RejectedExecutionException {
+        return CompletableFuture.supplyAsync(() -> hashTimer.record(task), executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
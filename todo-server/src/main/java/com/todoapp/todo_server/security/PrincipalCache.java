@@ -0,0 +1,50 @@
+package com.todoapp.todo_server.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Principals of verified JWTs keyed by username. Entries carry no password hash and
+// must be evicted whenever a user or their roles change. Hits and misses are published as
+// cache.gets{cache=security.principals}.
+@Component
+public class PrincipalCache {
+    private final Cache<String, UserDetails> principals;
+
+    public PrincipalCache(@Value("${todo.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${todo.security.principal-cache.ttl:5m}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+    }
+
+    // Loads outside the cache's computing lock, so a virtual thread waiting on the database
+    // does not pin its carrier; two concurrent misses may both load, the last one wins.
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        UserDetails principal = principals.getIfPresent(username);
+        if (principal == null) {
+            principal = loader.apply(username);
+            principals.put(username, principal);
+        }
+        return principal;
+    }
+
+    public void evict(String username) {
+        principals.invalidate(username);
+    }
+
+    public void evictAll() {
+        principals.invalidateAll();
+    }
+}
@@ -0,0 +1,146 @@
+package com.todoapp.todo_server.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs right after JWTAuthFilter and sheds task API requests of a principal that is over its budget with
+// an empty 429 and Retry-After, before they reach TaskController or take a database connection. Listing all
+// tasks, title search, the export and deleting all tasks draw on the smaller expensive budget. A streamed
+// export holds its in-flight slot until the async request ends. The event stream holds no thread or
+// connection while idle, so it takes a slot under the separate stream cap instead of an in-flight slot.
+// Unauthenticated requests pass through and are turned away by authorization.
+public class RequestRateLimitFilter extends OncePerRequestFilter {
+    private static final String TASKS_PATH = "/api/v1/tasks";
+    private static final String SEARCH_PATH = TASKS_PATH + "/search/";
+    private static final String STREAM_PATH = TASKS_PATH + "/stream";
+    private static final String EXPORT_PATH = TASKS_PATH + "/export";
+    private static final String DELETE_ALL_PATH = TASKS_PATH + "/delete";
+
+    @Autowired
+    private RequestRateLimiter rateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todo.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getServletPath().startsWith(TASKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // The slot is taken first, so requests shed for concurrency do not use up tokens
+        String principal = authentication.getName();
+        boolean stream = isStream(request);
+        RequestRateLimiter.ClientBudget budget = rateLimiter.tryEnter(principal, stream);
+        if (budget == null) {
+            reject(response, stream ? "streams" : "concurrency", 1_000_000_000L);
+            return;
+        }
+        boolean async = false;
+        try {
+            boolean expensive = isExpensive(request);
+            long waitNanos = budget.tryAcquire(expensive, System.nanoTime());
+            if (waitNanos > 0) {
+                reject(response, expensive ? "expensive" : "rate", waitNanos);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ExitOnCompletion(rateLimiter, principal, budget, stream));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                rateLimiter.exit(principal, budget, stream);
+            }
+        }
+    }
+
+    private static boolean isStream(HttpServletRequest request) {
+        return request.getMethod().equals("GET") && request.getServletPath().equals(STREAM_PATH);
+    }
+
+    private static boolean isExpensive(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return switch (request.getMethod()) {
+            case "GET" -> path.equals(TASKS_PATH) || path.equals(EXPORT_PATH) || path.startsWith(SEARCH_PATH);
+            case "DELETE" -> path.equals(DELETE_ALL_PATH);
+            default -> false;
+        };
+    }
+
+    private void reject(HttpServletResponse response, String reason, long waitNanos) {
+        meterRegistry.counter("todo.ratelimit.rejected", "reason", reason).increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    // A timeout or an error is followed by complete, so the slot is given back on whichever comes first
+    private static final class ExitOnCompletion implements AsyncListener {
+        private final RequestRateLimiter rateLimiter;
+        private final String principal;
+        private final RequestRateLimiter.ClientBudget budget;
+        private final boolean stream;
+        private final AtomicBoolean exited = new AtomicBoolean();
+
+        private ExitOnCompletion(RequestRateLimiter rateLimiter, String principal, RequestRateLimiter.ClientBudget budget, boolean stream) {
+            this.rateLimiter = rateLimiter;
+            this.principal = principal;
+            this.budget = budget;
+            this.stream = stream;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            exit();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            exit();
+        }
+
+        // Listeners are dropped when async processing is started again on a later dispatch
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void exit() {
+            if (exited.compareAndSet(false, true)) {
+                rateLimiter.exit(principal, budget, stream);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.todoapp.todo_server.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admission budgets per principal: a request rate, a smaller rate for expensive endpoints, a cap on
+// requests in flight and a separate cap on open event streams. Budgets of idle principals are evicted
+// after idle-timeout and the map never holds more than max-clients of them; an evicted principal simply
+// starts again with full buckets. A budget with requests or streams open is neither expired nor counted
+// against max-clients, so every slot is given back to the budget that handed it out.
+@Component
+public class RequestRateLimiter {
+    private final Cache<String, ClientBudget> budgets;
+    private final double requestsPerSecond;
+    private final int burst;
+    private final double expensiveRequestsPerSecond;
+    private final int expensiveBurst;
+    private final int maxConcurrentRequests;
+    private final int maxStreams;
+
+    public RequestRateLimiter(@Value("${todo.ratelimit.requests-per-second:50}") double requestsPerSecond,
+                              @Value("${todo.ratelimit.burst:100}") int burst,
+                              @Value("${todo.ratelimit.expensive.requests-per-second:5}") double expensiveRequestsPerSecond,
+                              @Value("${todo.ratelimit.expensive.burst:20}") int expensiveBurst,
+                              @Value("${todo.ratelimit.max-concurrent-requests:8}") int maxConcurrentRequests,
+                              @Value("${todo.ratelimit.max-streams:8}") int maxStreams,
+                              @Value("${todo.ratelimit.max-clients:100000}") long maxClients,
+                              @Value("${todo.ratelimit.idle-timeout:10m}") Duration idleTimeout) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.expensiveRequestsPerSecond = expensiveRequestsPerSecond;
+        this.expensiveBurst = expensiveBurst;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxStreams = maxStreams;
+        long idleNanos = idleTimeout.toNanos();
+        this.budgets = Caffeine.newBuilder()
+                .maximumWeight(maxClients)
+                .weigher((String principal, ClientBudget budget) -> budget.isIdle() ? 1 : 0)
+                .expireAfter(new Expiry<String, ClientBudget>() {
+                    @Override
+                    public long expireAfterCreate(String principal, ClientBudget budget, long currentTime) {
+                        return budget.isIdle() ? idleNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String principal, ClientBudget budget, long currentTime, long currentDuration) {
+                        return expireAfterCreate(principal, budget, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String principal, ClientBudget budget, long currentTime, long currentDuration) {
+                        return expireAfterCreate(principal, budget, currentTime);
+                    }
+                })
+                .build();
+    }
+
+    // The budget with a request (or stream) slot taken, or null when the principal has none left. Entering
+    // and leaving rewrite the entry, so its weight and expiry follow the slots it has handed out.
+    public ClientBudget tryEnter(String principal, boolean stream) {
+        boolean[] entered = new boolean[1];
+        ClientBudget budget = budgets.asMap().compute(principal, (key, current) -> {
+            ClientBudget entering = current != null ? current : newBudget();
+            entered[0] = entering.tryEnter(stream);
+            return entering;
+        });
+        return entered[0] ? budget : null;
+    }
+
+    // Every successful tryEnter must be paired with an exit
+    public void exit(String principal, ClientBudget budget, boolean stream) {
+        budgets.asMap().compute(principal, (key, current) -> {
+            budget.exit(stream);
+            return current;
+        });
+    }
+
+    private ClientBudget newBudget() {
+        long now = System.nanoTime();
+        return new ClientBudget(new TokenBucket(requestsPerSecond, burst, now),
+                new TokenBucket(expensiveRequestsPerSecond, expensiveBurst, now), maxConcurrentRequests, maxStreams);
+    }
+
+    public static final class ClientBudget {
+        private final TokenBucket requests;
+        private final TokenBucket expensiveRequests;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger openStreams = new AtomicInteger();
+        private final int maxInFlight;
+        private final int maxOpenStreams;
+
+        private ClientBudget(TokenBucket requests, TokenBucket expensiveRequests, int maxInFlight, int maxOpenStreams) {
+            this.requests = requests;
+            this.expensiveRequests = expensiveRequests;
+            this.maxInFlight = maxInFlight;
+            this.maxOpenStreams = maxOpenStreams;
+        }
+
+        // 0 when admitted, otherwise the nanoseconds until the budget allows another request
+        public long tryAcquire(boolean expensive, long nanoTime) {
+            return (expensive ? expensiveRequests : requests).tryAcquire(nanoTime);
+        }
+
+        // Only called under the cache entry's lock, see RequestRateLimiter.tryEnter
+        private boolean tryEnter(boolean stream) {
+            AtomicInteger open = stream ? openStreams : inFlight;
+            if (open.get() >= (stream ? maxOpenStreams : maxInFlight)) {
+                return false;
+            }
+            open.incrementAndGet();
+            return true;
+        }
+
+        private void exit(boolean stream) {
+            (stream ? openStreams : inFlight).decrementAndGet();
+        }
+
+        private boolean isIdle() {
+            return inFlight.get() == 0 && openStreams.get() == 0;
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.todoapp.todo_server.security;
 
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,10 +20,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import javax.crypto.SecretKey;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -41,12 +52,18 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(
                         authorize -> authorize
+                                // Streaming responses finish on an ASYNC dispatch that was already authorized
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/auth/**").permitAll()
+                                // Metrics, prometheus included, are scraped with ADMIN credentials over basic auth
+                                .requestMatchers(EndpointRequest.to("health")).permitAll()
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("ADMIN")
                                 .requestMatchers("/api/v1/tasks/delete/**", "/api/v1/tasks/add/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults());
         httpSecurity.addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class);
+        httpSecurity.addFilterAfter(requestRateLimitFilter(), JWTAuthFilter.class);
 
         return httpSecurity.build();
 
@@ -58,13 +75,49 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    // Hashes are stored as {bcrypt}...; older unprefixed hashes still match as plain BCrypt. On a
+    // successful login DaoAuthenticationProvider re-encodes any hash whose algorithm or cost is
+    // below the configured one and stores it through CustomeUserDetailsService.updatePassword.
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${todo.security.bcrypt.strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     @Bean
     protected JWTAuthFilter jwtAuthFilter() {
         return new JWTAuthFilter();
     }
+
+    // The filter only belongs in the security chain; a servlet registration would run it a second time
+    @Bean
+    public FilterRegistrationBean<JWTAuthFilter> jwtAuthFilterRegistration(JWTAuthFilter jwtAuthFilter) {
+        FilterRegistrationBean<JWTAuthFilter> registration = new FilterRegistrationBean<>(jwtAuthFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    protected RequestRateLimitFilter requestRateLimitFilter() {
+        return new RequestRateLimitFilter();
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestRateLimitFilter> requestRateLimitFilterRegistration(RequestRateLimitFilter requestRateLimitFilter) {
+        FilterRegistrationBean<RequestRateLimitFilter> registration = new FilterRegistrationBean<>(requestRateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    SecretKey jwtSigninKey() throws WeakKeyException {
+        try {
+            byte[] secreteBytes = Decoders.BASE64.decode(SecurityConstants.JWT_SECRETES);
+            return Keys.hmacShaKeyFor(secreteBytes);
+        } catch (WeakKeyException e) {
+            throw new WeakKeyException("Your secret key is invalid!");
+        }
+    }
 }
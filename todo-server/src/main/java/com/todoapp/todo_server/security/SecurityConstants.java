@@ -2,6 +2,7 @@ package com.todoapp.todo_server.security;
 
 public class SecurityConstants {
     public static final long JWT_EXPIRATION = 7000000;
+    public static final String JWT_ROLES_CLAIM = "roles";
     //public static final String JWT_SECRETES = "secrets";
     public static final String JWT_SECRETES = "asdfsdcscddsffsdfacacssdsfsdfdsafsdscdscaweedwewdfdgsdcasdcacadfdascsdcsdcdfasascaedcscsdfasdfdsggrehtrjhaasfweerwtgeshthkyjsa";
 
@@ -0,0 +1,38 @@
+package com.todoapp.todo_server.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket in its GCRA form: instead of a token count it keeps the instant at which the
+// bucket will be full again. Taking a token moves that instant one refill interval forward with a single
+// CAS; a request is refused when the instant would run more than capacity intervals ahead of now.
+// Refused requests never write, so a client that is being shed does not contend with itself.
+public final class TokenBucket {
+    private final long refillNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nanoTime) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid token bucket: " + tokensPerSecond + "/s, capacity " + capacity);
+        }
+        this.refillNanos = Math.max(1, Math.round(1_000_000_000 / tokensPerSecond));
+        this.capacityNanos = refillNanos * capacity;
+        this.fullAt = new AtomicLong(nanoTime);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until one is available.
+    // Times are compared by difference, System.nanoTime() may be negative.
+    public long tryAcquire(long nanoTime) {
+        while (true) {
+            long full = fullAt.get();
+            long next = (full - nanoTime > 0 ? full : nanoTime) + refillNanos;
+            long ahead = next - nanoTime;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+}
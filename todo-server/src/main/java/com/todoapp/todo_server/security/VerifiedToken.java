@@ -0,0 +1,19 @@
+package com.todoapp.todo_server.security;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+public class VerifiedToken {
+    private final String username;
+    private final List<String> roles;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String username, List<String> roles, Instant expiresAt) {
+        this.username = username;
+        this.roles = roles;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.TaskOutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Hands relayed events to @EventListener methods for TaskOutboxEvent in this application
+@Component
+public class InProcessTaskEventSink implements TaskEventSink {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void deliver(List<TaskOutboxEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
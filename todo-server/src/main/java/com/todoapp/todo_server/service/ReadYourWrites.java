@@ -0,0 +1,66 @@
+package com.todoapp.todo_server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// With read replicas (ReadReplicaRoutingDataSource), a principal that just wrote could read it back from a
+// replica that has not replayed the write yet. For the window after each of its committed read-write
+// transactions, its read-only work runs on the primary. The window should cover todo.datasource.replica.max-lag,
+// replicas further behind are out of rotation anyway. Kept per instance: behind a load balancer without session
+// affinity, a read on another instance only has the max-lag bound.
+@Component
+@ConditionalOnProperty(name = "todo.datasource.replica.enabled", havingValue = "true")
+public class ReadYourWrites {
+    // Register and login act for a user that is not authenticated yet, on threads of their own
+    private static final ThreadLocal<String> ACTING_AS = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${todo.datasource.replica.read-your-writes-window:5s}") Duration window,
+                          @Value("${todo.datasource.replica.read-your-writes-max-principals:100000}") long maxPrincipals) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxPrincipals)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public static <T> T actingAs(String username, Supplier<T> work) {
+        String previous = ACTING_AS.get();
+        ACTING_AS.set(username);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ACTING_AS.remove();
+            } else {
+                ACTING_AS.set(previous);
+            }
+        }
+    }
+
+    // After commit, on the writing thread, see ReadReplicaRoutingDataSource
+    public void markCurrentPrincipal() {
+        String principal = currentPrincipal();
+        if (principal != null) {
+            recentWriters.put(principal, Boolean.TRUE);
+        }
+    }
+
+    public boolean mustReadFromPrimary() {
+        String principal = currentPrincipal();
+        return principal != null && recentWriters.getIfPresent(principal) != null;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? ACTING_AS.get() : authentication.getName();
+    }
+}
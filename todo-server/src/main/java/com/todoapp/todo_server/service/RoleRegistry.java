@@ -0,0 +1,40 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.Roles;
+import com.todoapp.todo_server.repository.RoleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Roles is a tiny static table; it is read once at startup and served from memory afterwards.
+// A name that is not known yet is looked up once, so roles inserted later are still found.
+@Component
+@Log4j2
+public class RoleRegistry {
+    private final Map<String, Roles> rolesByName = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        roleRepository.findAll().forEach(role -> rolesByName.put(role.getRoleName(), role));
+        log.info("Loaded {} roles", rolesByName.size());
+    }
+
+    public Roles getByName(String roleName) {
+        Roles role = rolesByName.get(roleName);
+        if (role == null) {
+            role = roleRepository.findByRoleName(roleName)
+                    .orElseThrow(() -> new EntityNotFoundException("Role " + roleName + " Not Found!"));
+            rolesByName.put(roleName, role);
+        }
+        return role;
+    }
+}
@@ -0,0 +1,96 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.UserEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreDeleteEvent;
+import org.hibernate.event.spi.PreDeleteEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Keeps the second-level cache in step with task writes that Hibernate cannot see:
+// - native UPDATE ... RETURNING runs as a query, so Hibernate does not know it wrote to tasks;
+// - ON DELETE CASCADE from users removes task rows inside the database.
+// Both do what Hibernate does for its own writes: lock or pre-invalidate before the write and
+// release or evict when the transaction completes, so no concurrent transaction can cache the
+// old rows or old query results in between. Everything here is a no-op while the cache is off
+// (Hibernate then has no timestamps cache and no access strategy for Task).
+@Component
+public class TaskCacheInvalidator implements PreDeleteEventListener {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void register() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.PRE_DELETE, this);
+    }
+
+    public void beforeNativeUpdate(Long taskId) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        CacheImplementor cache = factory.getCache();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(Task.class);
+        String[] spaces = persister.getPropertySpaces();
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        TimestampsCache timestamps = cache.getTimestampsCache();
+        if (access == null && timestamps == null) {
+            return;
+        }
+
+        if (timestamps != null) {
+            timestamps.preInvalidate(spaces, session);
+        }
+        Object key = access == null ? null : access.generateCacheKey(taskId, persister, factory, session.getTenantIdentifier());
+        SoftLock lock = access == null ? null : access.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            if (access != null) {
+                access.unlockItem(completedSession, key, lock);
+            }
+            if (timestamps != null) {
+                timestamps.invalidate(spaces, completedSession);
+            }
+        });
+    }
+
+    // A deleted user takes its tasks with it through ON DELETE CASCADE
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        if (!(event.getEntity() instanceof UserEntity)) {
+            return false;
+        }
+        SessionImplementor session = event.getSession();
+        CacheImplementor cache = session.getFactory().getCache();
+        String[] spaces = session.getFactory().getMappingMetamodel().getEntityDescriptor(Task.class).getPropertySpaces();
+        TimestampsCache timestamps = cache.getTimestampsCache();
+
+        if (timestamps != null) {
+            timestamps.preInvalidate(spaces, session);
+        }
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            cache.evictEntityData(Task.class);
+            if (timestamps != null) {
+                timestamps.invalidate(spaces, completedSession);
+            }
+        });
+        return false;
+    }
+}
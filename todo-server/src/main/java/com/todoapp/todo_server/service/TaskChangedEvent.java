@@ -0,0 +1,16 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.dto.TaskEventDTO;
+import lombok.Getter;
+
+@Getter
+public class TaskChangedEvent {
+    // Owner of the task; null goes to every subscriber
+    private final Long userId;
+    private final TaskEventDTO payload;
+
+    public TaskChangedEvent(Long userId, TaskEventDTO payload) {
+        this.userId = userId;
+        this.payload = payload;
+    }
+}
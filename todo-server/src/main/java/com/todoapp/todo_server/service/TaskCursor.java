@@ -0,0 +1,77 @@
+package com.todoapp.todo_server.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class TaskCursor {
+    private static final String PREFIX = "id:";
+    private static final String CHANGE_PREFIX = "seq:";
+
+    private TaskCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return encode(PREFIX, lastId);
+    }
+
+    public static long decode(String cursor) {
+        return decode(PREFIX, cursor, "cursor");
+    }
+
+    // Delta sync tokens: the last change_seq the client has seen and the oldest transaction still running then.
+    // A sync without a token starts from the beginning and has no writers to look back for.
+    public record ChangeToken(long changeSeq, Long writersXmin) {
+    }
+
+    public static String encodeChangeToken(ChangeToken token) {
+        return encode(CHANGE_PREFIX, token.changeSeq() + ":" + token.writersXmin());
+    }
+
+    public static ChangeToken decodeChangeToken(String token) {
+        String value = decodeValue(CHANGE_PREFIX, token, "change token");
+        if (value == null) {
+            return new ChangeToken(0L, null);
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid change token: " + token);
+        }
+        try {
+            return new ChangeToken(Long.parseLong(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid change token: " + token, e);
+        }
+    }
+
+    private static String encode(String prefix, Object value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String prefix, String cursor, String kind) {
+        String value = decodeValue(prefix, cursor, kind);
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + kind + ": " + cursor, e);
+        }
+    }
+
+    private static String decodeValue(String prefix, String cursor, String kind) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException("Invalid " + kind + ": " + cursor);
+            }
+            return decoded.substring(prefix.length());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + kind + ": " + cursor, e);
+        }
+    }
+}
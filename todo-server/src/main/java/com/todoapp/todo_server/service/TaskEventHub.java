@@ -0,0 +1,261 @@
+package com.todoapp.todo_server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes task changes to the owner's open /api/v1/tasks/stream connections.
+// - An idle stream is a parked async request and holds no thread, so the number of streams is
+//   bounded by server.tomcat.max-connections, not by the request thread pool.
+// - Publishing only enqueues: every subscriber has a bounded queue, drained by at most one sender
+//   thread at a time. A subscriber whose queue overflows is disconnected; on reconnect it catches
+//   up through GET /api/v1/tasks/changes instead of holding memory for a client that cannot keep up.
+// - A send still blocked after send-timeout (a client that stopped reading) disconnects its subscriber
+//   too. The sender stays stuck until the connector's write timeout fails the write, so the pool gets
+//   a thread in its place, up to max-sender-threads, and the other subscribers are not held up.
+// - Events are handled after the transaction commits, so clients never see a rolled back change.
+// Senders are platform threads: SseEmitter writes inside synchronized blocks, which would pin virtual threads.
+@Component
+@Log4j2
+public class TaskEventHub {
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final long sendTimeoutNanos;
+    private final int maxSenderThreads;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats;
+
+    public TaskEventHub(ObjectMapper objectMapper,
+                        @Value("${todo.events.timeout:30m}") Duration timeout,
+                        @Value("${todo.events.queue-capacity:256}") int queueCapacity,
+                        @Value("${todo.events.sender-threads:4}") int senderThreads,
+                        @Value("${todo.events.heartbeat-interval:30s}") Duration heartbeatInterval,
+                        @Value("${todo.events.send-timeout:5s}") Duration sendTimeout,
+                        @Value("${todo.events.max-sender-threads:64}") int maxSenderThreads) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.queueCapacity = queueCapacity;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.maxSenderThreads = Math.max(senderThreads, maxSenderThreads);
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("task-events-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("task-events-heartbeat-"));
+        // Keeps proxies from closing idle streams and finds connections that went away
+        long interval = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(() -> broadcast(HEARTBEAT), interval, interval, TimeUnit.MILLISECONDS);
+        long checkInterval = Math.max(1, sendTimeout.toMillis() / 2);
+        heartbeats.scheduleAtFixedRate(this::checkSends, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // Commits the response headers right away, so the client knows the stream is open
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        log.info("User {} subscribed to task events", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) throws JsonProcessingException {
+        if (event.getUserId() != null && !subscribers.containsKey(event.getUserId())) {
+            return;
+        }
+        // Serialized once, however many streams the user has open
+        Set<DataWithMediaType> data = SseEmitter.event()
+                .name(event.getPayload().getType())
+                .data(objectMapper.writeValueAsString(event.getPayload()), MediaType.APPLICATION_JSON)
+                .build();
+        if (event.getUserId() == null) {
+            broadcast(data);
+        } else {
+            subscribers.getOrDefault(event.getUserId(), Set.of()).forEach(subscriber -> subscriber.offer(data));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private void broadcast(Set<DataWithMediaType> data) {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(data)));
+    }
+
+    private void checkSends() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.checkSend(now)));
+    }
+
+    // Grows the pool by one thread per stuck send and shrinks it back once that send returns
+    private synchronized boolean resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (size > maxSenderThreads) {
+            return false;
+        }
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+        return true;
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean disconnected = new AtomicBoolean();
+        // System.nanoTime() when the send in progress started, 0 between sends
+        private volatile long sendStartedAt;
+        // Guarded by this
+        private boolean closed;
+        private boolean holdsExtraSender;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // Never blocks the publishing thread
+        private void offer(Set<DataWithMediaType> data) {
+            if (!queue.offer(data)) {
+                disconnect("its queue is full");
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void checkSend(long now) {
+            long started = sendStartedAt;
+            if (started == 0 || now - started < sendTimeoutNanos) {
+                return;
+            }
+            synchronized (this) {
+                if (closed || holdsExtraSender) {
+                    return;
+                }
+                holdsExtraSender = resizeSenders(1);
+            }
+            disconnect("a send took longer than " + Duration.ofNanos(sendTimeoutNanos));
+        }
+
+        // complete() waits for a send in progress, so the stream is closed by the sender once that returns
+        private void disconnect(String reason) {
+            if (!disconnected.compareAndSet(false, true)) {
+                return;
+            }
+            log.warn("Disconnecting task event subscriber of user {}: {}", userId, reason);
+            remove(this);
+            queue.clear();
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            boolean failed = false;
+            try {
+                Set<DataWithMediaType> data;
+                while (!disconnected.get() && (data = queue.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(data);
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Task event stream of user {} closed: {}", userId, e.toString());
+                remove(this);
+                queue.clear();
+                disconnected.set(true);
+                failed = true;
+            } finally {
+                sendStartedAt = 0;
+                sending.set(false);
+            }
+            if (disconnected.get()) {
+                close(!failed);
+                return;
+            }
+            // An event may have been queued after the last poll but before sending was cleared
+            if (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // After a failed send the container reports the error and ends the request itself
+        private void close(boolean complete) {
+            boolean releaseSender;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                releaseSender = holdsExtraSender;
+            }
+            if (releaseSender) {
+                resizeSenders(-1);
+            }
+            if (complete) {
+                emitter.complete();
+            }
+        }
+    }
+}
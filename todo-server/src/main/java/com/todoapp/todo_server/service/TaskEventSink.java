@@ -0,0 +1,13 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.TaskOutboxEvent;
+
+import java.util.List;
+
+// Destination of relayed outbox events. Every sink bean receives every batch, in outbox order.
+// Runs inside the relay transaction: throwing leaves the batch in the outbox to be retried, so
+// a sink can see the same event again and should skip ids it already handled.
+public interface TaskEventSink {
+
+    void deliver(List<TaskOutboxEvent> events);
+}
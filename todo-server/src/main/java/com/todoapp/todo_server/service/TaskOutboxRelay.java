@@ -0,0 +1,155 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.TaskOutboxEvent;
+import com.todoapp.todo_server.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Moves task_outbox rows to the TaskEventSink beans, off the request path. Any number of instances
+// can run it: each batch claims task heads with SKIP LOCKED (see TaskOutboxRepository), delivers and
+// deletes in one transaction. Events of one task are never in two batches at once, so they reach the
+// sinks in order; delivery is at least once. A batch that fails counts an attempt on each of its
+// events, which are then retried one at a time, so only the event a sink keeps rejecting reaches
+// max-attempts. That event is dead-lettered: left in task_outbox but skipped, so the rest of its task
+// goes on without it.
+@Component
+@Log4j2
+public class TaskOutboxRelay {
+
+    @Autowired
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @Autowired
+    private List<TaskEventSink> sinks;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todo.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todo.outbox.relay.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    @Value("${todo.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${todo.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Task outbox relay polling every {}", pollInterval);
+    }
+
+    // Waits for a batch in flight, so it does not run into the EntityManagerFactory closing
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Relays full batches back to back, then waits for the next poll
+    public void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed >= batchSize);
+        } catch (Exception e) {
+            log.error("Task outbox relay failed, retrying in {}", pollInterval, e);
+        }
+    }
+
+    public int relayBatch() {
+        List<Long> claimed = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            Integer relayed = transaction.execute(status -> {
+                List<TaskOutboxEvent> heads = taskOutboxRepository.lockPendingHeads(batchSize);
+                if (heads.isEmpty()) {
+                    return 0;
+                }
+                List<TaskOutboxEvent> events = eventsToDeliver(heads);
+                events.forEach(event -> claimed.add(event.getId()));
+                for (TaskEventSink sink : sinks) {
+                    sink.deliver(events);
+                }
+                taskOutboxRepository.deleteAllByIdInBatch(claimed);
+                log.debug("Relayed {} task events", events.size());
+                return events.size();
+            });
+            return relayed == null ? 0 : relayed;
+        } catch (RuntimeException e) {
+            if (!claimed.isEmpty()) {
+                recordFailedAttempt(claimed);
+            }
+            throw e;
+        }
+    }
+
+    // An event that failed before goes alone; otherwise the rest of each claimed task's events can
+    // follow its head in the same batch
+    private List<TaskOutboxEvent> eventsToDeliver(List<TaskOutboxEvent> heads) {
+        for (TaskOutboxEvent head : heads) {
+            if (head.getAttempts() > 0) {
+                return List.of(head);
+            }
+        }
+        Map<Long, TaskOutboxEvent> batch = new TreeMap<>();
+        heads.forEach(event -> batch.put(event.getId(), event));
+        List<Long> taskIds = heads.stream().map(TaskOutboxEvent::getTaskId).filter(Objects::nonNull).toList();
+        if (!taskIds.isEmpty()) {
+            taskOutboxRepository.findPendingForTasks(taskIds, batchSize)
+                    .forEach(event -> batch.put(event.getId(), event));
+        }
+        return new ArrayList<>(batch.values());
+    }
+
+    private void recordFailedAttempt(List<Long> ids) {
+        try {
+            taskOutboxRepository.recordFailedAttempt(ids, maxAttempts);
+            for (TaskOutboxEvent event : taskOutboxRepository.findDeadLettered(ids)) {
+                meterRegistry.counter("todo.outbox.dead_lettered", "type", event.getType()).increment();
+                log.error("Dead-lettered task event {} ({} of task {}) after {} failed deliveries",
+                        event.getId(), event.getType(), event.getTaskId(), event.getAttempts());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not record the failed delivery of task events {}", ids, e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.todoapp.todo_server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records every TaskChangedEvent in task_outbox as part of the transaction that published it.
+// Events are collected until the transaction is about to commit and then written as one batched
+// INSERT, so a request pays one extra round trip however many tasks it touched.
+@Component
+public class TaskOutboxWriter {
+
+    private static final String INSERT = "insert into task_outbox (id, task_id, user_id, type, payload, created_at) " +
+            "values (nextval('task_outbox_seq'), ?, ?, ?, ?, now())";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Task events must be published inside the transaction that wrote the task");
+        }
+        @SuppressWarnings("unchecked")
+        List<TaskChangedEvent> pending = (List<TaskChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<TaskChangedEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskOutboxWriter.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void write(List<TaskChangedEvent> events) {
+        // Flushing first puts the task writes, and their row locks, ahead of the outbox ids
+        entityManager.flush();
+        List<String> payloads = new ArrayList<>(events.size());
+        for (TaskChangedEvent event : events) {
+            try {
+                payloads.add(objectMapper.writeValueAsString(event.getPayload()));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        // One JDBC batch on the transaction's connection; plain JDBC also leaves the second-level cache alone
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (int i = 0; i < events.size(); i++) {
+                    TaskChangedEvent event = events.get(i);
+                    insert.setObject(1, event.getPayload().getTaskId(), Types.BIGINT);
+                    insert.setObject(2, event.getUserId(), Types.BIGINT);
+                    insert.setString(3, event.getPayload().getType());
+                    insert.setString(4, payloads.get(i));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+}
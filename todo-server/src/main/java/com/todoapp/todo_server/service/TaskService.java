@@ -1,28 +1,102 @@
 package com.todoapp.todo_server.service;
 
+import com.todoapp.todo_server.dto.TaskAssignmentDTO;
+import com.todoapp.todo_server.dto.TaskChangesDTO;
+import com.todoapp.todo_server.dto.TaskCollectionVersionDTO;
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.dto.TaskEventDTO;
+import com.todoapp.todo_server.dto.TaskPageDTO;
+import com.todoapp.todo_server.dto.TaskStatusSummaryDTO;
+import com.todoapp.todo_server.dto.TaskStatusUpdateDTO;
 import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.TaskStatusCount;
 import com.todoapp.todo_server.entity.UserEntity;
 import com.todoapp.todo_server.repository.TaskRepository;
+import com.todoapp.todo_server.repository.TaskRepositoryCustom;
+import com.todoapp.todo_server.repository.TaskRepositoryImpl;
+import com.todoapp.todo_server.repository.TaskStatusCountRepository;
+import com.todoapp.todo_server.repository.TaskTombstoneRepository;
 import com.todoapp.todo_server.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.EmptyStackException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Every public method is timed as todo.task.service{class, method, exception}
 @Service
 @Log4j2
+@Timed("todo.task.service")
 public class TaskService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
     @Autowired
     public TaskRepository taskRepository;
 
     @Autowired
     public UserRepository userRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TaskCacheInvalidator taskCacheInvalidator;
+
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private TaskStatusCountRepository taskStatusCountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TaskEventHub taskEventHub;
+
+    @Transactional(readOnly = true)
     public List<Task> getAllTasks() throws Exception {
         try {
             log.info("Fetching all tasks...");
@@ -34,34 +108,273 @@ public class TaskService {
         }
     }
 
+    @Transactional(readOnly = true)
+    public TaskPageDTO getTasksPage(Long userId, TaskStatus status, String title, String after, Integer limit, List<String> fields) throws Exception {
+        long afterId = TaskCursor.decode(after);
+        int pageSize = toPageSize(limit);
+        List<String> selectedFields = toSelectedFields(fields);
+        try {
+            log.info("Fetching page of {} tasks after id {}...", pageSize, afterId);
+            String pattern = title == null ? null : toContainsPattern(title);
+            // One extra row tells us whether another page exists without a count query
+            if (selectedFields == null) {
+                List<Task> tasks = taskRepository.findPage(userId, status, pattern, afterId, pageSize + 1);
+                checkUserExists(userId, tasks);
+                boolean hasMore = tasks.size() > pageSize;
+                List<Task> page = hasMore ? tasks.subList(0, pageSize) : tasks;
+                String nextCursor = hasMore ? TaskCursor.encode(page.get(pageSize - 1).getId()) : null;
+                log.info("{} Tasks Found!", page.size());
+                return new TaskPageDTO(page, nextCursor);
+            }
+            List<Map<String, Object>> rows = taskRepository.findPageProjection(userId, status, pattern, afterId, pageSize + 1, selectedFields);
+            checkUserExists(userId, rows);
+            boolean hasMore = rows.size() > pageSize;
+            List<Map<String, Object>> page = hasMore ? rows.subList(0, pageSize) : rows;
+            String nextCursor = hasMore ? TaskCursor.encode((Long) page.get(pageSize - 1).get("id")) : null;
+            log.info("{} Tasks Found!", page.size());
+            return new TaskPageDTO(page, nextCursor);
+        } catch (Exception e) {
+            throw new Exception("Error found in getTasksPage service: " + e);
+        }
+    }
+
+    // The list version and its page in one transaction, so with read replicas both come from the same database
+    // and, repeatable read, the same snapshot. Returns null without loading the page when notModified accepts
+    // the version.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TaskPageDTO getTasksPageIfModified(Long userId, TaskStatus status, String after, Integer limit, List<String> fields,
+                                              Predicate<TaskCollectionVersionDTO> notModified) throws Exception {
+        if (notModified.test(getUserTasksVersion(userId))) {
+            return null;
+        }
+        return getTasksPage(userId, status, null, after, limit, fields);
+    }
+
+    // Cost follows the number of changes: both lists are range scans on change_seq, see Task and TaskTombstone.
+    // Every query is bounded by the watermark, so none of them needs to share a snapshot with the others.
+    // Not read-only on purpose: a replica may not have replayed everything below the watermark yet.
+    public TaskChangesDTO getTaskChanges(Long userId, String since, Integer limit) throws Exception {
+        TaskCursor.ChangeToken token = TaskCursor.decodeChangeToken(since);
+        long sinceSeq = token.changeSeq();
+        int pageSize = toPageSize(limit);
+        try {
+            log.info("Fetching task changes for user {} since {}...", userId, sinceSeq);
+            TaskTombstoneRepository.ChangeWatermark watermark = changeWatermark();
+            long until = watermark.getChangeSeq();
+            Long reset = taskTombstoneRepository.findLastReset(sinceSeq, token.writersXmin(), until);
+            // After a reset the client starts over, late commits below it are gone with everything else
+            long from = reset == null ? sinceSeq : reset;
+            Long fromXmin = reset == null ? token.writersXmin() : null;
+            Map<Long, Task> changed = taskRepository.findChangedSince(userId, from, fromXmin, until, pageSize);
+            Map<Long, Long> deleted = taskRepository.findDeletedSince(userId, from, fromXmin, until, pageSize);
+
+            // A full list may have been cut short, so the page ends at the last change_seq both lists cover.
+            // That can be below the token when late commits alone fill a page.
+            long end = until;
+            if (changed.size() == pageSize) {
+                end = Math.min(end, lastKey(changed));
+            }
+            if (deleted.size() == pageSize) {
+                end = Math.min(end, lastKey(deleted));
+            }
+            long pageEnd = end;
+            List<Task> changedPage = changed.entrySet().stream()
+                    .filter(entry -> entry.getKey() <= pageEnd).map(Map.Entry::getValue).toList();
+            List<Long> deletedPage = deleted.entrySet().stream()
+                    .filter(entry -> entry.getKey() <= pageEnd).map(Map.Entry::getValue).toList();
+            log.info("{} Changed and {} Deleted Tasks Found!", changedPage.size(), deletedPage.size());
+            String nextToken = TaskCursor.encodeChangeToken(new TaskCursor.ChangeToken(pageEnd, watermark.getWritersXmin()));
+            return new TaskChangesDTO(changedPage, deletedPage, reset != null, nextToken, pageEnd < until);
+        } catch (Exception e) {
+            throw new Exception("Error found in getTaskChanges service: " + e);
+        }
+    }
+
+    // Last change_seq handed out and the oldest transaction still running. A value is taken before its
+    // transaction commits, so changes up to the watermark may still be invisible; the token keeps
+    // writersXmin so the next sync picks those up, without waiting for their writers here.
+    // On the primary, where the sequence and the writers are.
+    private TaskTombstoneRepository.ChangeWatermark changeWatermark() {
+        return new TransactionTemplate(transactionManager).execute(status -> taskTombstoneRepository.findChangeWatermark());
+    }
+
+    public SseEmitter subscribeToTaskEvents(String username) throws Exception {
+        try {
+            UserEntity user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new EntityNotFoundException("User " + username + " Not Found!"));
+            return taskEventHub.subscribe(user.getId());
+        } catch (Exception e) {
+            throw new Exception("Error found in subscribeToTaskEvents service: " + e);
+        }
+    }
+
+    // Delivered once the surrounding transaction commits, see TaskEventHub
+    private void publish(Long userId, String type, Task task) {
+        eventPublisher.publishEvent(new TaskChangedEvent(userId, new TaskEventDTO(type, task.getId(), task)));
+    }
+
+    // The previous owner's stream drops the task as it happens; its delta sync also gets the tombstone
+    private void publishReassigned(Task task, Long previousUserId) {
+        Long userId = task.getUserAssigned().getId();
+        if (!userId.equals(previousUserId)) {
+            eventPublisher.publishEvent(new TaskChangedEvent(previousUserId, new TaskEventDTO(TaskEventDTO.UNASSIGNED, task.getId(), null)));
+        }
+        publish(userId, TaskEventDTO.ASSIGNED, task);
+    }
+
+    private static long lastKey(Map<Long, ?> map) {
+        long last = 0;
+        for (Long key : map.keySet()) {
+            last = key;
+        }
+        return last;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportTasks(Long userId, TaskStatus status, OutputStream out) throws Exception {
+        try (Stream<Task> tasks = taskRepository.streamAllForExport(userId, status)) {
+            log.info("Exporting tasks for user {} with status {}...", userId, status);
+            ObjectWriter writer = objectMapper.writerFor(Task.class)
+                    .withRootValueSeparator("\n")
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            long exported = 0;
+            for (Task task : (Iterable<Task>) tasks::iterator) {
+                writer.writeValue(generator, task);
+                // Detached rows can be collected, so heap use does not grow with the export size
+                entityManager.detach(task);
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+            if (exported > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            log.info("{} Tasks Exported!", exported);
+            return exported;
+        } catch (Exception e) {
+            throw new Exception("Error found in exportTasks service: " + e);
+        }
+    }
+
+    // Transactional so the outbox row commits with the task, see TaskOutboxWriter
+    @Transactional(rollbackFor = Exception.class)
     public Task addTaskAndAssign(Task task, Long userId) throws Exception {
         try {
             UserEntity user = userRepository.findById(userId)
                     .orElseThrow(() -> new EntityNotFoundException("User with id: " + userId + " not found!"));
             task.setUserAssigned(user);
-            return taskRepository.save(task);
+            if (task.getStatus() == null) {
+                task.setStatus(TaskStatus.OPEN);
+            }
+            Task savedTask = taskRepository.save(task);
+            publish(userId, TaskEventDTO.CREATED, savedTask);
+            return savedTask;
         } catch (Exception e) {
             throw new Exception("Error found in add & assign new task service: "+ e);
         }
 
     }
 
+    // Batch writes run in one transaction; inserts are grouped by hibernate.jdbc.batch_size and ids
+    // come from the pooled tasks_seq generator. Each insert statement fires the V3 counters trigger,
+    // so the rows go in (user, status) order: batches sharing counters then lock them in the same
+    // order and wait on each other instead of deadlocking. The tasks come back in request order.
+    @Transactional(rollbackFor = Exception.class)
+    public List<Task> addTasksAndAssign(List<TaskCreateDTO> requests) throws Exception {
+        try {
+            log.info("Adding batch of {} tasks...", requests.size());
+            Map<Long, UserEntity> users = findUserReferences(requests.stream().map(TaskCreateDTO::getUserId).toList());
+            List<Task> tasks = new ArrayList<>(requests.size());
+            for (TaskCreateDTO request : requests) {
+                Task task = new Task(request.getTitle(), request.getDescription());
+                if (request.getStatus() != null) {
+                    task.setStatus(request.getStatus());
+                }
+                task.setUserAssigned(users.get(request.getUserId()));
+                tasks.add(task);
+            }
+            List<Task> inserts = new ArrayList<>(tasks);
+            inserts.sort(Comparator.comparing((Task task) -> task.getUserAssigned().getId())
+                    .thenComparing(task -> task.getStatus().getCode()));
+            taskRepository.saveAll(inserts);
+            tasks.forEach(task -> publish(task.getUserAssigned().getId(), TaskEventDTO.CREATED, task));
+            log.info("{} Tasks Added!", tasks.size());
+            return tasks;
+        } catch (Exception e) {
+            throw new Exception("Error found in add & assign batch service: " + e);
+        }
+    }
+
+    // Batch assignments and status updates are one UPDATE each (see TaskRepository.assignUsersReturning),
+    // so the counters trigger locks the batch's counters in key order. A task listed twice gets its last value.
+    @Transactional(rollbackFor = Exception.class)
+    public List<Task> assignTasksToUsers(List<TaskAssignmentDTO> assignments) throws Exception {
+        try {
+            log.info("Assigning batch of {} tasks...", assignments.size());
+            findUserReferences(assignments.stream().map(TaskAssignmentDTO::getUserId).toList());
+            Map<Long, Long> userIds = new LinkedHashMap<>();
+            for (TaskAssignmentDTO assignment : assignments) {
+                userIds.put(requireTaskId(assignment.getTaskId()), assignment.getUserId());
+            }
+            userIds.keySet().forEach(taskCacheInvalidator::beforeNativeUpdate);
+            List<TaskRepositoryCustom.Reassigned> reassigned = taskRepository.assignUsersReturning(
+                    userIds.keySet().toArray(Long[]::new), userIds.values().toArray(Long[]::new));
+            Map<Long, Long> previousUserIds = new HashMap<>();
+            reassigned.forEach(row -> previousUserIds.put(row.task().getId(), row.previousUserId()));
+            List<Task> tasks = inRequestOrder(userIds.keySet(), reassigned.stream().map(TaskRepositoryCustom.Reassigned::task).toList());
+            tasks.forEach(task -> publishReassigned(task, previousUserIds.get(task.getId())));
+            log.info("{} Tasks Assigned!", tasks.size());
+            return tasks;
+        } catch (Exception e) {
+            throw new Exception("Error found in Assign Tasks batch service: " + e);
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public List<Task> updateTaskStatuses(List<TaskStatusUpdateDTO> updates) throws Exception {
+        if (updates.stream().anyMatch(update -> update.getStatus() == null)) {
+            throw new IllegalArgumentException("status is required!");
+        }
+        try {
+            log.info("Updating status of {} tasks...", updates.size());
+            Map<Long, Short> statuses = new LinkedHashMap<>();
+            for (TaskStatusUpdateDTO update : updates) {
+                statuses.put(requireTaskId(update.getTaskId()), update.getStatus().getCode());
+            }
+            statuses.keySet().forEach(taskCacheInvalidator::beforeNativeUpdate);
+            List<Task> tasks = inRequestOrder(statuses.keySet(), taskRepository.updateStatusesReturning(
+                    statuses.keySet().toArray(Long[]::new), statuses.values().toArray(Short[]::new)));
+            tasks.forEach(task -> publish(task.getUserAssigned().getId(), TaskEventDTO.STATUS, task));
+            log.info("{} Task Statuses Updated!", tasks.size());
+            return tasks;
+        } catch (Exception e) {
+            throw new Exception("Error found in updateTaskStatuses batch service: " + e);
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
     public void deleteAllTasks() throws Exception {
         try {
             log.warn("Warning! Only ADMIN can perform deletion of all tasks!");
-            List<Task> currentTasks = this.getAllTasks();
-            if (currentTasks.isEmpty()) {
+            log.info("Deleting All Tasks");
+            // One bulk DELETE; its row count is the empty check, and the tombstone trigger records every task
+            // for delta sync in one INSERT ... SELECT. Not TRUNCATE: that takes an ACCESS EXCLUSIVE lock, which
+            // waits behind running exports and blocks every reader queued after it, and is not MVCC-safe.
+            int deleted = taskRepository.deleteAllTasks();
+            if (deleted == 0) {
                 throw new EmptyResultDataAccessException("No Records For Deletion!", 0);
             }
-            log.info("Deleting All Tasks");
-            taskRepository.deleteAll();
-            log.info("All Tasks Deleted Successfully!");
+            eventPublisher.publishEvent(new TaskChangedEvent(null, new TaskEventDTO(TaskEventDTO.RESET, null, null)));
+            log.info("All {} Tasks Deleted Successfully!", deleted);
         } catch (Exception e) {
             throw new Exception("Error Found In Delete All Tasks service: "+e);
         }
 
     }
 
+    @Transactional(readOnly = true)
     public Task getTaskById(Long id) throws Exception {
         try {
             log.info("Finding task with id: {}...", id);
@@ -71,42 +384,67 @@ public class TaskService {
         }
     }
 
+    @Transactional(rollbackFor = Exception.class)
     public void deleteById(Long id) throws Exception {
         try {
-            log.info("Finding Task By Id {} For Deletion...", id);
-            Task deletedTask = taskRepository.findById(id)
+            log.info("Deleting Task By Id {}...", id);
+            // RETURNING tells us whose stream gets the event without reading the task first
+            taskCacheInvalidator.beforeNativeUpdate(id);
+            Long userId = taskRepository.deleteReturningUserId(id)
                     .orElseThrow(() -> new EntityNotFoundException("Task By Id "+id+" Not Found For Deletion!"));
-            log.info("Task By Id {} Found. Prepare Perform Deletion...", id);
-            taskRepository.delete(deletedTask);
+            eventPublisher.publishEvent(new TaskChangedEvent(userId, new TaskEventDTO(TaskEventDTO.DELETED, id, null)));
             log.info("Task By Id {} Deleted Successfully!", id);
         } catch (Exception e) {
             throw new Exception("Error found in deleteTaskById service: "+ e);
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Task> getTasksByUserId(Long userId) throws Exception {
+        return getTasksByUserId(userId, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Task> getTasksByUserId(Long userId, TaskStatus status) throws Exception {
         try {
             log.info("Fetching tasks for user with id: {}...", userId);
-            Optional<UserEntity> userAssigned = userRepository.findById(userId);
-            if (userAssigned.isPresent()) {
-                log.info("User with id {} found!", userAssigned.get().getId());
-                List<Task> tasksById = taskRepository.findAllByUserAssigned(userAssigned.get());
-                log.info("{} Tasks Found For User With Id {}", tasksById.size(), userId);
-                return tasksById;
-            }
-            throw new Exception("User with Id " + userId + " Not Found!");
+            List<Task> tasksById = taskRepository.findAllByUser(userId, status);
+            checkUserExists(userId, tasksById);
+            log.info("{} Tasks Found For User With Id {}", tasksById.size(), userId);
+            return tasksById;
         } catch (Exception e) {
             throw new Exception("Error found in getByUserId service: " + e);
         }
 
     }
 
+    @Transactional(readOnly = true)
+    public TaskCollectionVersionDTO getUserTasksVersion(Long userId) throws Exception {
+        try {
+            return taskRepository.findCollectionVersion(userId);
+        } catch (Exception e) {
+            throw new Exception("Error found in getUserTasksVersion service: " + e);
+        }
+    }
+
+    // Reads the counters kept by the task triggers, so the cost does not grow with the user's tasks
+    @Transactional(readOnly = true)
+    public TaskStatusSummaryDTO getTaskStatusSummary(Long userId) throws Exception {
+        try {
+            log.info("Fetching task status summary for user with id: {}...", userId);
+            List<TaskStatusCount> counts = taskStatusCountRepository.findAllByUserId(userId);
+            checkUserExists(userId, counts);
+            return new TaskStatusSummaryDTO(userId, counts);
+        } catch (Exception e) {
+            throw new Exception("Error found in getTaskStatusSummary service: " + e);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<Task> getTasksByTitle(String title) throws Exception {
         try {
             log.info("Fetching tasks by title...");
-            List<Task> tasksByTitle = taskRepository.findAll().stream()
-                    .filter(task -> task.getTitle().toLowerCase().contains(title.toLowerCase()))
-                    .toList();
+            List<Task> tasksByTitle = taskRepository.findAllByTitleLike(toContainsPattern(title));
             log.info("{} Tasks Found by title!", tasksByTitle.size());
             return tasksByTitle;
         } catch (Exception e) {
@@ -115,32 +453,140 @@ public class TaskService {
 
     }
 
+    @Transactional(rollbackFor = Exception.class)
     public Task assignTaskToUser(Long userId, Long id) throws Exception {
         try {
-            log.info("Finding user with Id {}...", userId);
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new EntityNotFoundException("User With Id: "+userId+" Not Found!"));
-            log.info("Finding Task with Id {}...", id);
-            Task assignedTask = taskRepository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("Task By Id: " + id + " Not Found!"));
-            assignedTask.setUserAssigned(user);
+            log.info("Assigning Task with Id {} to User with Id {}...", id, userId);
+            List<TaskRepositoryCustom.Reassigned> reassigned;
+            taskCacheInvalidator.beforeNativeUpdate(id);
+            try {
+                reassigned = taskRepository.assignUsersReturning(new Long[]{id}, new Long[]{userId});
+            } catch (DataIntegrityViolationException e) {
+                throw new EntityNotFoundException("User With Id: "+userId+" Not Found!");
+            }
+            if (reassigned.isEmpty()) {
+                throw new EntityNotFoundException("Task By Id: " + id + " Not Found!");
+            }
+            Task assignedTask = reassigned.get(0).task();
+            publishReassigned(assignedTask, reassigned.get(0).previousUserId());
             log.info("Assigned Task by Id {} to User by Id {}", id, userId);
-            return taskRepository.save(assignedTask);
+            return assignedTask;
         } catch (Exception e) {
             throw new Exception("Error found in Assign Task to User service: "+e);
         }
     }
 
-    public Task updateTaskStatus(Long id, String status) throws Exception {
+    @Transactional(rollbackFor = Exception.class)
+    public Task updateTaskStatus(Long id, TaskStatus status) throws Exception {
+        return updateTaskStatus(id, status, null);
+    }
+
+    // expectedVersion comes from If-Match; a stale one fails instead of overwriting a concurrent edit
+    @Transactional(rollbackFor = Exception.class)
+    public Task updateTaskStatus(Long id, TaskStatus status, Long expectedVersion) throws Exception {
+        if (status == null) {
+            throw new IllegalArgumentException("status is required!");
+        }
         try {
-            log.info("Finding Task By Id {}...", id);
-            Task task = taskRepository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("Task By Id "+id+" Not Found!"));
-            task.setStatus(status);
+            log.info("Updating Status Of Task By Id {}...", id);
+            taskCacheInvalidator.beforeNativeUpdate(id);
+            Optional<Task> task = taskRepository.updateStatusReturning(id, status.getCode(), expectedVersion);
+            if (task.isEmpty()) {
+                if (expectedVersion != null && taskRepository.existsById(id)) {
+                    throw new OptimisticLockException("Task By Id "+id+" Was Modified Concurrently!");
+                }
+                throw new EntityNotFoundException("Task By Id "+id+" Not Found!");
+            }
             log.info("Updated Task Status {}", status);
-            return taskRepository.save(task);
+            publish(task.get().getUserAssigned().getId(), TaskEventDTO.STATUS, task.get());
+            return task.get();
+        } catch (OptimisticLockException e) {
+            throw e;
         } catch (Exception e) {
             throw new Exception("Error found in updateTaskStatus service: "+e);
         }
     }
+
+    // Tasks are filtered on user_id alone; the user is only looked up when nothing matched,
+    // to tell an unknown user apart from one without tasks.
+    private void checkUserExists(Long userId, List<?> results) {
+        if (userId != null && results.isEmpty() && !userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User with Id " + userId + " Not Found!");
+        }
+    }
+
+    // One IN query checks that every user exists; the tasks only need a reference
+    // for the foreign key, so users and their EAGER roles are never loaded.
+    private Map<Long, UserEntity> findUserReferences(Collection<Long> userIds) {
+        Set<Long> requestedIds = new HashSet<>(userIds);
+        if (requestedIds.contains(null)) {
+            throw new EntityNotFoundException("User id is required!");
+        }
+        Set<Long> existingIds = new HashSet<>(userRepository.findExistingIds(requestedIds));
+        Map<Long, UserEntity> users = new HashMap<>();
+        for (Long userId : requestedIds) {
+            if (!existingIds.contains(userId)) {
+                throw new EntityNotFoundException("User with id: " + userId + " not found!");
+            }
+            users.put(userId, userRepository.getReferenceById(userId));
+        }
+        return users;
+    }
+
+    private static Long requireTaskId(Long taskId) {
+        if (taskId == null) {
+            throw new EntityNotFoundException("Task id is required!");
+        }
+        return taskId;
+    }
+
+    // The rows a batch UPDATE ... RETURNING wrote, in request order; a missing task rolls the batch back
+    private static List<Task> inRequestOrder(Collection<Long> taskIds, List<Task> updated) {
+        Map<Long, Task> tasks = updated.stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<Task> ordered = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                throw new EntityNotFoundException("Task By Id: " + taskId + " Not Found!");
+            }
+            ordered.add(task);
+        }
+        return ordered;
+    }
+
+    private static int toPageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    private static List<String> toSelectedFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        // id is always returned since the next cursor is built from it
+        List<String> selected = new ArrayList<>();
+        selected.add("id");
+        for (String field : fields) {
+            String trimmed = field.trim();
+            if (!TaskRepositoryImpl.PROJECTABLE_FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown task field: " + trimmed);
+            }
+            if (!selected.contains(trimmed)) {
+                selected.add(trimmed);
+            }
+        }
+        return selected;
+    }
+
+    private static String toContainsPattern(String title) {
+        String escaped = title.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
 }
@@ -0,0 +1,101 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.repository.TaskStatusCountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Recounts the tasks of every user now and then and repairs task_status_counts where it drifted, e.g.
+// after tasks were written with the triggers disabled. Users are taken in batches of batch-size, one
+// statement and transaction each; a batch another instance is already repairing is skipped this round.
+@Component
+@Log4j2
+public class TaskStatusCountReconciler {
+
+    @Autowired
+    private TaskStatusCountRepository taskStatusCountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${todo.counters.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${todo.counters.reconcile.interval:1h}")
+    private Duration interval;
+
+    @Value("${todo.counters.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-status-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Task status count reconciliation every {}", interval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public void run() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Task status count reconciliation failed, retrying in {}", interval, e);
+        }
+    }
+
+    // Number of counters repaired
+    public int reconcile() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int repaired = 0;
+        long after = 0;
+        while (true) {
+            Long upTo = taskStatusCountRepository.findLastUserIdOfBatch(after, batchSize);
+            if (upTo == null) {
+                break;
+            }
+            long from = after;
+            // The repair runs after the lock is taken, so its snapshot includes a repair that held it before
+            List<Long> users = transaction.execute(status -> taskStatusCountRepository.tryLockReconcile()
+                    ? taskStatusCountRepository.repairDrift(from, upTo) : List.of());
+            if (users != null && !users.isEmpty()) {
+                log.warn("Repaired {} drifted task status counters of users {}", users.size(), users.stream().distinct().toList());
+                meterRegistry.counter("todo.task.status-counts.repaired").increment(users.size());
+                repaired += users.size();
+            }
+            after = upTo;
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,68 @@
+-- Tables, sequences and indexes as mapped by the entities; Hibernate validates against them on startup.
+-- Databases created by ddl-auto=update before the migrations existed are baselined at this version.
+CREATE SEQUENCE roles_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE tasks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE task_change_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE task_outbox_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE roles (
+    id bigint NOT NULL,
+    role_name varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id bigint NOT NULL,
+    username varchar(255) NOT NULL,
+    password varchar(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE user_roles (
+    user_id bigint NOT NULL REFERENCES users,
+    role_id bigint NOT NULL REFERENCES roles,
+    PRIMARY KEY (role_id, user_id)
+);
+
+CREATE TABLE tasks (
+    id bigint NOT NULL,
+    title varchar(255),
+    description varchar(255),
+    status varchar(255),
+    version bigint DEFAULT 0 NOT NULL,
+    updated_at timestamp(6) with time zone DEFAULT now(),
+    change_seq bigint,
+    user_id bigint NOT NULL REFERENCES users ON DELETE CASCADE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_tasks_user_status_id ON tasks (user_id, status, id);
+CREATE INDEX idx_tasks_user_id_version ON tasks (user_id, id, version, updated_at);
+CREATE INDEX idx_tasks_change_seq ON tasks (change_seq);
+CREATE INDEX idx_tasks_user_change_seq ON tasks (user_id, change_seq);
+
+CREATE TABLE task_tombstones (
+    change_seq bigint NOT NULL,
+    task_id bigint,
+    user_id bigint,
+    deleted_at timestamp(6) with time zone DEFAULT now(),
+    PRIMARY KEY (change_seq)
+);
+
+CREATE INDEX idx_task_tombstones_user_change_seq ON task_tombstones (user_id, change_seq);
+
+CREATE TABLE task_outbox (
+    id bigint NOT NULL,
+    task_id bigint,
+    user_id bigint,
+    type varchar(255) NOT NULL,
+    payload text,
+    created_at timestamp(6) with time zone DEFAULT now(),
+    attempts integer DEFAULT 0 NOT NULL,
+    dead_lettered_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_task_outbox_task_id ON task_outbox (task_id, id);
@@ -0,0 +1,61 @@
+-- Trigram index for the case-insensitive title search, lower(title) LIKE '%...%'
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_tasks_title_trgm ON tasks USING gin (lower(title) gin_trgm_ops);
+
+-- Delta sync (GET /api/v1/tasks/changes). Every insert and update stamps the row with the next
+-- task_change_seq value, deletes leave tombstones and TRUNCATE leaves a single reset marker.
+-- Rows also carry the id of the transaction that wrote them, so no writer has to be waited for: a sync
+-- token keeps the oldest transaction still running when it was issued (pg_snapshot_xmin), and a change
+-- below the token that was not visible yet was made by that transaction or a later one, so the next
+-- sync looks for those too. Rows written before these columns existed are committed and keep a NULL xid.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_xid bigint;
+ALTER TABLE task_tombstones ADD COLUMN IF NOT EXISTS change_xid bigint;
+
+CREATE OR REPLACE FUNCTION tasks_stamp_change() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    NEW.change_seq := nextval(''task_change_seq'');
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    IF TG_OP = ''UPDATE'' AND NEW.user_id <> OLD.user_id THEN
+        INSERT INTO task_tombstones (change_seq, task_id, user_id, change_xid)
+            VALUES (nextval(''task_change_seq''), OLD.id, OLD.user_id, NEW.change_xid);
+    END IF;
+    RETURN NEW;
+END';
+
+CREATE OR REPLACE FUNCTION tasks_record_tombstones() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    INSERT INTO task_tombstones (change_seq, task_id, user_id, change_xid)
+        SELECT nextval(''task_change_seq''), id, user_id, pg_current_xact_id()::text::bigint FROM deleted_tasks ORDER BY id;
+    RETURN NULL;
+END';
+
+-- Older tombstones are worthless once every client has to resync
+CREATE OR REPLACE FUNCTION tasks_record_reset() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    TRUNCATE task_tombstones;
+    INSERT INTO task_tombstones (change_seq, change_xid) VALUES (nextval(''task_change_seq''), pg_current_xact_id()::text::bigint);
+    RETURN NULL;
+END';
+
+DROP TRIGGER IF EXISTS tasks_stamp_change ON tasks;
+CREATE TRIGGER tasks_stamp_change BEFORE INSERT OR UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION tasks_stamp_change();
+
+-- Statement level with a transition table: one INSERT ... SELECT per DELETE, including ON DELETE CASCADE from users
+DROP TRIGGER IF EXISTS tasks_record_tombstones ON tasks;
+CREATE TRIGGER tasks_record_tombstones AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS deleted_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_record_tombstones();
+
+DROP TRIGGER IF EXISTS tasks_record_reset ON tasks;
+CREATE TRIGGER tasks_record_reset AFTER TRUNCATE ON tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_record_reset();
+
+-- Rows written before change_seq existed; the trigger hands them their values
+UPDATE tasks SET change_seq = nextval('task_change_seq') WHERE change_seq IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_reset ON task_tombstones (change_seq) WHERE task_id IS NULL;
+
+-- Only rows written since the oldest transaction that was running at the last sync are looked up by xid
+CREATE INDEX IF NOT EXISTS idx_tasks_change_xid ON tasks (change_xid);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_change_xid ON task_tombstones (change_xid);
@@ -0,0 +1,78 @@
+-- tasks.status becomes a TaskStatus code (0 OPEN, 1 IN_PROGRESS, 2 DONE). The free-form values written
+-- so far are mapped by name; anything else, including NULL, is OPEN. The rewrite does not fire the
+-- row triggers, so change_seq is left alone; idx_tasks_user_status_id is rebuilt on the new type.
+ALTER TABLE tasks
+    ALTER COLUMN status TYPE smallint USING
+        CASE upper(translate(trim(status), '- ', '__'))
+            WHEN 'IN_PROGRESS' THEN 1
+            WHEN 'DONE' THEN 2
+            ELSE 0
+        END,
+    ALTER COLUMN status SET DEFAULT 0,
+    ALTER COLUMN status SET NOT NULL;
+
+-- Tasks per user and status for GET /api/v1/tasks/summary/user/{userId}: a primary key range of at most
+-- one row per status, however many tasks the user has.
+CREATE TABLE task_status_counts (
+    user_id bigint NOT NULL REFERENCES users ON DELETE CASCADE,
+    status smallint NOT NULL,
+    task_count bigint NOT NULL,
+    PRIMARY KEY (user_id, status)
+);
+
+-- Statement level with transition tables, so a batch or a cascade adds one delta per user and status
+-- instead of one per row. The deltas run in the writing statement, so they commit or roll back with
+-- it. Inserts and updates add them in key order, which only orders the locks of one statement: writers
+-- that touch several counters do so in a single statement or in (user_id, status) order (see the batch
+-- writes in TaskService), so they wait on each other instead of deadlocking. A delete only ever removes
+-- one task or one user's tasks. Updates that move neither user nor status net out to nothing and write
+-- no counter.
+CREATE OR REPLACE FUNCTION tasks_count_statuses() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        INSERT INTO task_status_counts AS c (user_id, status, task_count)
+            SELECT user_id, status, count(*) FROM new_tasks
+            GROUP BY user_id, status ORDER BY user_id, status
+            ON CONFLICT (user_id, status) DO UPDATE SET task_count = c.task_count + EXCLUDED.task_count;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        INSERT INTO task_status_counts AS c (user_id, status, task_count)
+            SELECT user_id, status, sum(delta) FROM (
+                SELECT user_id, status, 1 AS delta FROM new_tasks
+                UNION ALL
+                SELECT user_id, status, -1 FROM old_tasks) d
+            GROUP BY user_id, status HAVING sum(delta) <> 0 ORDER BY user_id, status
+            ON CONFLICT (user_id, status) DO UPDATE SET task_count = c.task_count + EXCLUDED.task_count;
+    ELSE
+        -- A plain UPDATE: when a user is deleted its counters may already be gone with it
+        UPDATE task_status_counts c SET task_count = c.task_count - d.task_count
+            FROM (SELECT user_id, status, count(*) AS task_count FROM old_tasks GROUP BY user_id, status) d
+            WHERE c.user_id = d.user_id AND c.status = d.status;
+    END IF;
+    RETURN NULL;
+END';
+
+CREATE OR REPLACE FUNCTION tasks_reset_status_counts() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    TRUNCATE task_status_counts;
+    RETURN NULL;
+END';
+
+-- A trigger with transition tables can only have one event
+CREATE TRIGGER tasks_count_inserted AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_count_statuses();
+
+CREATE TRIGGER tasks_count_updated AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_tasks NEW TABLE AS new_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_count_statuses();
+
+CREATE TRIGGER tasks_count_deleted AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_count_statuses();
+
+CREATE TRIGGER tasks_reset_status_counts AFTER TRUNCATE ON tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION tasks_reset_status_counts();
+
+-- The migration holds tasks exclusively since the ALTER, so no write can slip between the count and the triggers
+INSERT INTO task_status_counts (user_id, status, task_count)
+    SELECT user_id, status, count(*) FROM tasks GROUP BY user_id, status;
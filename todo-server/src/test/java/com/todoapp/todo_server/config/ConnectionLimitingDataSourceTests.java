@@ -0,0 +1,108 @@
+package com.todoapp.todo_server.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Far more virtual threads than permits against a stand-in pool that counts the connections held at once
+class ConnectionLimitingDataSourceTests {
+    private static final int PERMITS = 4;
+
+    @Test
+    void saturatedLimiterServesEveryThreadWithinItsPermits() throws Exception {
+        CountingDataSource pool = new CountingDataSource();
+        ConnectionLimitingDataSource limiter = new ConnectionLimitingDataSource(pool, PERMITS, Duration.ofSeconds(30));
+
+        List<Future<?>> requests = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                requests.add(executor.submit(() -> {
+                    try (Connection connection = limiter.getConnection()) {
+                        connection.isValid(0);
+                        Thread.sleep(1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(1000, pool.opened.get());
+        assertTrue(pool.maxOpen.get() <= PERMITS, "at most " + PERMITS + " held at once, was " + pool.maxOpen.get());
+        assertEquals(PERMITS, limiter.availablePermits());
+    }
+
+    @Test
+    void waitersFailAfterTheAcquireTimeoutAndPermitsComeBack() throws Exception {
+        CountingDataSource pool = new CountingDataSource();
+        ConnectionLimitingDataSource limiter = new ConnectionLimitingDataSource(pool, PERMITS, Duration.ofMillis(100));
+        List<Connection> held = new ArrayList<>();
+        for (int i = 0; i < PERMITS; i++) {
+            held.add(limiter.getConnection());
+        }
+
+        assertThrows(SQLTransientConnectionException.class, limiter::getConnection);
+
+        // Closing twice releases one permit, a failing pool releases the permit it was asked under
+        for (Connection connection : held) {
+            connection.close();
+            connection.close();
+        }
+        assertEquals(PERMITS, limiter.availablePermits());
+        pool.failing = true;
+        assertThrows(SQLException.class, limiter::getConnection);
+        assertEquals(PERMITS, limiter.availablePermits());
+    }
+
+    private static final class CountingDataSource extends AbstractDataSource {
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger maxOpen = new AtomicInteger();
+        private final AtomicInteger opened = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("pool is down");
+            }
+            opened.incrementAndGet();
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (closed.compareAndSet(false, true)) {
+                                open.decrementAndGet();
+                            }
+                            yield null;
+                        }
+                        case "isValid" -> true;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.todoapp.todo_server.config;
+
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.UserRepository;
+import com.todoapp.todo_server.service.TaskService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boots the prod profile against an empty schema of its own on the local Postgres: Flyway builds it from
+// db/migration, Hibernate validates its mappings against the result and the tuned pool serves the writes.
+@SpringBootTest
+@ActiveProfiles("prod")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        // public stays on the search path for the pg_trgm operator classes
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=prod_profile_test,public",
+        "spring.jpa.properties.hibernate.default_schema=prod_profile_test",
+        "spring.flyway.schemas=prod_profile_test",
+        "todo.datasource.pool.db-cores=2",
+        "todo.datasource.pool.db-max-connections=30",
+        "todo.datasource.pool.reserved-connections=4",
+        "todo.datasource.pool.instances=2",
+        "todo.outbox.relay.enabled=false",
+        "todo.counters.reconcile.enabled=false"
+})
+class ProdDataSourceProfileTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Pooled connections start with autocommit off, so the drop needs a transaction of its own
+    @AfterAll
+    void dropSchema() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.execute("drop schema prod_profile_test cascade"));
+    }
+
+    @Test
+    void poolSizeFollowsCoresUntilTheConnectionLimit() {
+        assertEquals(33, ConnectionPoolSizing.poolSize(16, 1, 100, 10, 1));
+        assertEquals(22, ConnectionPoolSizing.poolSize(16, 1, 100, 10, 4));
+        assertEquals(1, ConnectionPoolSizing.poolSize(8, 0, 13, 10, 3));
+        assertThrows(IllegalArgumentException.class, () -> ConnectionPoolSizing.poolSize(8, 1, 12, 10, 3));
+        assertThrows(IllegalArgumentException.class, () -> ConnectionPoolSizing.poolSize(0, 1, 100, 10, 1));
+    }
+
+    @Test
+    void schemaIsBuiltByMigrations() {
+        assertEquals(0, flyway.info().pending().length);
+        MigrationInfo[] migrations = flyway.info().applied();
+        assertTrue(Arrays.stream(migrations).noneMatch(migration -> migration.getType().isBaseline()));
+        List<String> applied = Arrays.stream(migrations)
+                .map(MigrationInfo::getVersion)
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .toList();
+        assertTrue(applied.containsAll(List.of("1", "2", "3")), applied.toString());
+    }
+
+    @Test
+    void poolIsFixedAtTheComputedSize() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        // min(2 cores * 2 + 1 spindle, (30 - 4) / 2 instances)
+        assertEquals(5, hikari.getMaximumPoolSize());
+        assertEquals(5, hikari.getMinimumIdle());
+        assertFalse(hikari.isAutoCommit());
+        assertEquals("true", hikari.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+    }
+
+    @Test
+    void connectionsCarryTheDriverSettings() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            assertEquals(3, pgConnection.getPrepareThreshold());
+            assertEquals(100, pgConnection.getDefaultFetchSize());
+            assertFalse(connection.getAutoCommit());
+        }
+    }
+
+    @Test
+    void hibernateUsesFetchSizeAndPaddedInLists() {
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions();
+        assertEquals(100, options.getJdbcFetchSize());
+        assertTrue(options.inClauseParameterPaddingEnabled());
+    }
+
+    // Rewritten batch inserts through connections that start with autocommit off, stamped by the V2 trigger
+    @Test
+    void batchInsertIsCommitted() throws Exception {
+        UserEntity user = newUser();
+
+        taskService.addTasksAndAssign(newTasks(user, 120));
+
+        assertEquals(120, jdbcTemplate.queryForObject(
+                "select count(*) from tasks where user_id = ? and change_seq is not null", Long.class, user.getId()));
+        assertEquals(120, jdbcTemplate.queryForObject("select count(*) from task_outbox where user_id = ?", Long.class, user.getId()));
+    }
+
+    private UserEntity newUser() {
+        UserEntity user = new UserEntity();
+        user.setUsername("prod-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        return userRepository.save(user);
+    }
+
+    private static List<TaskCreateDTO> newTasks(UserEntity user, int count) {
+        List<TaskCreateDTO> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TaskCreateDTO request = new TaskCreateDTO();
+            request.setTitle("task " + i);
+            request.setUserId(user.getId());
+            requests.add(request);
+        }
+        return requests;
+    }
+}
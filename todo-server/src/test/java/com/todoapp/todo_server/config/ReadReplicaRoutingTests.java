@@ -0,0 +1,206 @@
+package com.todoapp.todo_server.config;
+
+import com.todoapp.todo_server.dto.TaskPageDTO;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.UserRepository;
+import com.todoapp.todo_server.service.ReadYourWrites;
+import com.todoapp.todo_server.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A second database on the local Postgres stands in for a replica: migrated like the primary but filled
+// separately, so every read shows where it ran. The first replica URL points at nothing and never takes reads.
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=read_replica_test,public",
+        "spring.jpa.properties.hibernate.default_schema=read_replica_test",
+        "spring.flyway.schemas=read_replica_test",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "todo.datasource.replica.enabled=true",
+        "todo.datasource.replica.urls=jdbc:postgresql://localhost:1/postgres,"
+                + "jdbc:postgresql://localhost:5432/read_replica_test?currentSchema=read_replica_test",
+        "todo.datasource.replica.health-check-interval=1h",
+        "todo.outbox.relay.enabled=false",
+        "todo.counters.reconcile.enabled=false"
+})
+class ReadReplicaRoutingTests {
+    private static final long REPLICA_USER_ID = 900_000_001L;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private ReadReplicaRoutingDataSource routing;
+    private JdbcTemplate admin;
+
+    @BeforeAll
+    void createReplica() throws Exception {
+        routing = dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+        admin = new JdbcTemplate(new DriverManagerDataSource("jdbc:postgresql://localhost:5432/postgres", username, password));
+        admin.execute("drop database if exists read_replica_test with (force)");
+        admin.execute("create database read_replica_test");
+        // Migrated into its own schema, pg_trgm included, so the URL needs no second schema (the list is comma-separated)
+        String replicaUrl = "jdbc:postgresql://localhost:5432/read_replica_test?currentSchema=read_replica_test";
+        Flyway.configure().dataSource(replicaUrl, username, password).schemas("read_replica_test").load().migrate();
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, username, password));
+        replica.update("insert into users (id, username) values (?, 'replica-only')", REPLICA_USER_ID);
+        replica.update("insert into tasks (id, title, user_id) values (?, 'replica task', ?)", REPLICA_USER_ID, REPLICA_USER_ID);
+        awaitHealthyReplicas(1);
+    }
+
+    @AfterAll
+    void dropReplica() {
+        jdbcTemplate.execute("drop schema read_replica_test cascade");
+        admin.execute("drop database if exists read_replica_test with (force)");
+    }
+
+    @Test
+    void readOnlyWorkRunsOnAHealthyReplica() throws Exception {
+        assertEquals(1, routing.healthyReplicas());
+        for (int i = 0; i < 3; i++) {
+            List<Task> tasks = taskService.getTasksByUserId(REPLICA_USER_ID);
+            assertEquals(List.of("replica task"), tasks.stream().map(Task::getTitle).toList());
+        }
+        // Writes and the reads outside read-only transactions stay on the primary
+        UserEntity user = newUser();
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where id = ?", Long.class, user.getId()));
+    }
+
+    @Test
+    void principalReadsItsOwnWritesFromThePrimary() throws Exception {
+        UserEntity user = newUser();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of()));
+        try {
+            Task task = taskService.addTaskAndAssign(new Task("mine", "written to the primary"), user.getId());
+
+            assertEquals("mine", taskService.getTaskById(task.getId()).getTitle());
+
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken("someone-else", null, List.of()));
+            assertThrows(Exception.class, () -> taskService.getTaskById(task.getId()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Any committed read-write transaction counts, not only task changes: the user that just registered
+    // reads itself back from the primary, while for everyone else the read-only lookup goes to the replica
+    @Test
+    void registeredUserIsReadFromThePrimary() {
+        String username = "replica-" + System.nanoTime();
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setPassword("{noop}password");
+
+        Long id = ReadYourWrites.actingAs(username, () -> userRepository.save(user).getId());
+
+        assertTrue(ReadYourWrites.actingAs(username, () -> userRepository.findById(id)).isPresent());
+        assertTrue(userRepository.findById(id).isEmpty());
+    }
+
+    @Test
+    void listVersionAndPageAreReadFromTheSameReplica() throws Exception {
+        UserEntity writer = newUser();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(writer.getUsername(), null, List.of()));
+        try {
+            taskService.addTaskAndAssign(new Task("recent write", null), writer.getId());
+            SecurityContextHolder.clearContext();
+            double replicaReads = reads("replica");
+            double primaryReads = reads("primary");
+
+            // The version is read on the replica. Had the page taken a connection of its own, it would
+            // have gone to the primary for the writer, where the replica's user does not exist.
+            TaskPageDTO page = taskService.getTasksPageIfModified(REPLICA_USER_ID, null, null, null, null, version -> {
+                assertEquals(1, version.getCount());
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(writer.getUsername(), null, List.of()));
+                return false;
+            });
+
+            assertEquals(List.of("replica task"), page.getTasks().stream().map(task -> ((Task) task).getTitle()).toList());
+            assertEquals(1, reads("replica") - replicaReads);
+            assertEquals(0, reads("primary") - primaryReads);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWithoutAHealthyReplica() throws Exception {
+        UserEntity user = newUser();
+        taskService.addTaskAndAssign(new Task("primary task", null), user.getId());
+        admin.execute("alter database read_replica_test allow_connections false");
+        admin.queryForList("select pg_terminate_backend(pid) from pg_stat_activity where datname = 'read_replica_test'");
+        try {
+            awaitHealthyReplicas(0);
+
+            assertEquals(List.of("primary task"), taskService.getTasksByUserId(user.getId()).stream().map(Task::getTitle).toList());
+        } finally {
+            admin.execute("alter database read_replica_test allow_connections true");
+            awaitHealthyReplicas(1);
+        }
+    }
+
+    // The pool retries a database that was unreachable with growing pauses, so a check can come too early
+    private void awaitHealthyReplicas(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        routing.checkReplicas();
+        while (routing.healthyReplicas() != expected && System.nanoTime() - deadline < 0) {
+            Thread.sleep(200);
+            routing.checkReplicas();
+        }
+        assertEquals(expected, routing.healthyReplicas());
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("todo.datasource.reads").tag("target", target).functionCounter().count();
+    }
+
+    private UserEntity newUser() {
+        UserEntity user = new UserEntity();
+        user.setUsername("replica-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,138 @@
+package com.todoapp.todo_server.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// One request in flight and two open streams per principal and an expensive budget of a single request,
+// so every admission shows
+class RequestRateLimitFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestRateLimitFilter filter = new RequestRateLimitFilter();
+
+    @BeforeEach
+    void setUp() {
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(1000, 1000, 0.001, 1, 1, 2, 100, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(filter, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamedExportHoldsItsSlotUntilTheAsyncRequestEnds() throws Exception {
+        MockHttpServletRequest export = request("/api/v1/tasks/export");
+        assertEquals(200, filter(export, true).getStatus());
+
+        // The handler returned, but the export is still being written
+        assertEquals(429, filter(request("/api/v1/tasks/changes"), false).getStatus());
+        assertEquals(1.0, rejected("concurrency"));
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(200, filter(request("/api/v1/tasks/changes"), false).getStatus());
+    }
+
+    @Test
+    void openStreamsHaveACapOfTheirOwn() throws Exception {
+        MockHttpServletRequest stream = request("/api/v1/tasks/stream");
+        assertEquals(200, filter(stream, true).getStatus());
+        assertEquals(200, filter(request("/api/v1/tasks/stream"), true).getStatus());
+
+        // Neither stream holds the one request slot
+        assertEquals(200, filter(request("/api/v1/tasks/changes"), false).getStatus());
+        assertEquals(429, filter(request("/api/v1/tasks/stream"), true).getStatus());
+        assertEquals(1.0, rejected("streams"));
+
+        ((MockAsyncContext) stream.getAsyncContext()).complete();
+        assertEquals(200, filter(request("/api/v1/tasks/stream"), true).getStatus());
+    }
+
+    @Test
+    void timedOutRequestGivesItsSlotBackOnce() throws Exception {
+        MockHttpServletRequest slow = request("/api/v1/tasks/changes");
+        filter(slow, true);
+
+        // A timeout is followed by complete; releasing twice would let two requests in at once
+        AsyncContext asyncContext = slow.getAsyncContext();
+        for (AsyncListener listener : ((MockAsyncContext) asyncContext).getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        ((MockAsyncContext) asyncContext).complete();
+
+        assertEquals(200, filter(request("/api/v1/tasks/changes"), true).getStatus());
+        assertEquals(429, filter(request("/api/v1/tasks/changes"), true).getStatus());
+        assertEquals(1.0, rejected("concurrency"));
+    }
+
+    @Test
+    void exportDrawsOnTheExpensiveBudget() throws Exception {
+        MockHttpServletRequest export = request("/api/v1/tasks/export");
+        assertEquals(200, filter(export, true).getStatus());
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+
+        assertEquals(429, filter(request("/api/v1/tasks/export"), true).getStatus());
+        assertEquals(1.0, rejected("expensive"));
+        assertEquals(200, filter(request("/api/v1/tasks/changes"), false).getStatus());
+    }
+
+    // Idle budgets expire, but one still counting a request keeps its count past the idle timeout
+    @Test
+    void budgetWithARequestInFlightIsNotExpired() throws Exception {
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(1000, 1000, 1000, 1000, 1, 1, 1, Duration.ofMillis(50));
+        RequestRateLimiter.ClientBudget budget = rateLimiter.tryEnter("bob", false);
+        assertNotNull(budget);
+        RequestRateLimiter.ClientBudget other = rateLimiter.tryEnter("carol", false);
+        rateLimiter.exit("carol", other, false);
+        Thread.sleep(200);
+
+        assertNull(rateLimiter.tryEnter("bob", false));
+        rateLimiter.exit("bob", budget, false);
+        assertNotNull(rateLimiter.tryEnter("bob", false));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, boolean async) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            if (async) {
+                req.startAsync(req, res);
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.counter("todo.ratelimit.rejected", "reason", reason).count();
+    }
+}
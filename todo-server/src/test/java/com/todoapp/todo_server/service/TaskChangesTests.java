@@ -0,0 +1,196 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.dto.TaskAssignmentDTO;
+import com.todoapp.todo_server.dto.TaskChangesDTO;
+import com.todoapp.todo_server.dto.TaskCollectionVersionDTO;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Delta sync, change events and list validators against a schema of its own, built by the migrations so the change triggers are in place.
+// Writers and readers that stay open are plain connections next to the application's pool.
+@SpringBootTest
+@RecordApplicationEvents
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=changes_test,public",
+        "spring.jpa.properties.hibernate.default_schema=changes_test",
+        "spring.flyway.schemas=changes_test",
+        "todo.outbox.relay.enabled=false",
+        "todo.counters.reconcile.enabled=false"
+})
+class TaskChangesTests {
+    // Well above what tasks_seq hands out here
+    private static final long RAW_TASK_ID = 900_000_001L;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("drop schema changes_test cascade");
+    }
+
+    @Test
+    void syncDoesNotWaitForRunningWritersAndPicksUpTheirChangesLater() throws Exception {
+        UserEntity user = newUser();
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            // DONE, so its status counter row is not the one the insert below waits for
+            try (PreparedStatement insert = writer.prepareStatement("insert into tasks (id, title, status, user_id) values (?, 'late', 2, ?)")) {
+                insert.setLong(1, RAW_TASK_ID);
+                insert.setLong(2, user.getId());
+                insert.executeUpdate();
+            }
+            // Takes a later change_seq than the open insert, and commits first
+            taskService.addTaskAndAssign(new Task("early", null), user.getId());
+
+            TaskChangesDTO first = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> taskService.getTaskChanges(user.getId(), null, null));
+            assertEquals(List.of("early"), titles(first));
+            writer.commit();
+
+            TaskChangesDTO second = taskService.getTaskChanges(user.getId(), first.getNextToken(), null);
+            assertTrue(titles(second).contains("late"), titles(second).toString());
+            // Once no writer from before the token is left, nothing comes twice
+            TaskChangesDTO third = taskService.getTaskChanges(user.getId(), second.getNextToken(), null);
+            assertTrue(third.getChanged().isEmpty(), titles(third).toString());
+        }
+    }
+
+    @Test
+    void deleteAllTasksLeavesTombstonesWithoutWaitingForReaders() throws Exception {
+        UserEntity user = newUser();
+        Task first = taskService.addTaskAndAssign(new Task("first", null), user.getId());
+        Task second = taskService.addTaskAndAssign(new Task("second", null), user.getId());
+        String token = taskService.getTaskChanges(user.getId(), null, null).getNextToken();
+
+        // A transaction that has read tasks, like a running export, holds a lock TRUNCATE would wait for
+        try (Connection reader = dataSource.getConnection()) {
+            reader.setAutoCommit(false);
+            reader.createStatement().executeQuery("select count(*) from tasks").close();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> taskService.deleteAllTasks());
+            reader.commit();
+        }
+
+        TaskChangesDTO changes = taskService.getTaskChanges(user.getId(), token, null);
+        assertFalse(changes.isReset());
+        assertEquals(List.of(first.getId(), second.getId()), changes.getDeleted());
+        assertTrue(changes.getChanged().isEmpty());
+    }
+
+    // Both the single and the batch reassignment tell the previous owner's stream; moving a task to
+    // the user who already has it tells nobody it is gone
+    @Test
+    void reassignedTaskIsTakenOffThePreviousOwnersStream() throws Exception {
+        UserEntity owner = newUser();
+        UserEntity other = newUser();
+        Task first = taskService.addTaskAndAssign(new Task("first", null), owner.getId());
+        Task second = taskService.addTaskAndAssign(new Task("second", null), owner.getId());
+
+        events.clear();
+        taskService.assignTaskToUser(other.getId(), first.getId());
+        TaskAssignmentDTO move = new TaskAssignmentDTO();
+        move.setTaskId(second.getId());
+        move.setUserId(other.getId());
+        TaskAssignmentDTO stay = new TaskAssignmentDTO();
+        stay.setTaskId(first.getId());
+        stay.setUserId(other.getId());
+        taskService.assignTasksToUsers(List.of(move, stay));
+
+        List<String> published = events.stream(TaskChangedEvent.class)
+                .map(event -> (event.getUserId().equals(owner.getId()) ? "owner " : "other ")
+                        + event.getPayload().getType() + " " + event.getPayload().getTaskId())
+                .toList();
+        assertEquals(List.of(
+                "owner unassigned " + first.getId(), "other assigned " + first.getId(),
+                "owner unassigned " + second.getId(), "other assigned " + second.getId(),
+                "other assigned " + first.getId()), published);
+    }
+
+    @Test
+    void collectionVersionChangesWhenDeleteAndReassignBalanceOut() throws Exception {
+        UserEntity user = newUser();
+        UserEntity other = newUser();
+        Task updated = taskService.addTaskAndAssign(new Task("updated", null), user.getId());
+        taskService.updateTaskStatus(updated.getId(), TaskStatus.DONE);
+        Task moved = taskService.addTaskAndAssign(new Task("moved", null), other.getId());
+        taskService.addTaskAndAssign(new Task("kept", null), user.getId());
+        TaskCollectionVersionDTO before = taskService.getUserTasksVersion(user.getId());
+
+        // Same count as before
+        taskService.deleteById(updated.getId());
+        taskService.assignTaskToUser(user.getId(), moved.getId());
+
+        TaskCollectionVersionDTO after = taskService.getUserTasksVersion(user.getId());
+        assertEquals(before.getCount(), after.getCount());
+        assertNotEquals(before, after);
+    }
+
+    // An edit that took its change_seq before a newer write committed leaves the newest change_seq alone
+    @Test
+    void collectionVersionChangesWhenAnOlderWriteCommitsLast() throws Exception {
+        UserEntity user = newUser();
+        Task edited = taskService.addTaskAndAssign(new Task("edited", null), user.getId());
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement update = writer.prepareStatement("update tasks set title = 'edited late' where id = ?")) {
+                update.setLong(1, edited.getId());
+                update.executeUpdate();
+            }
+            taskService.addTaskAndAssign(new Task("newer", null), user.getId());
+            TaskCollectionVersionDTO before = taskService.getUserTasksVersion(user.getId());
+            writer.commit();
+
+            TaskCollectionVersionDTO after = taskService.getUserTasksVersion(user.getId());
+            assertEquals(before.getLastChangeSeq(), after.getLastChangeSeq());
+            assertNotEquals(before, after);
+        }
+    }
+
+    private static List<String> titles(TaskChangesDTO changes) {
+        return changes.getChanged().stream().map(Task::getTitle).toList();
+    }
+
+    private UserEntity newUser() {
+        UserEntity user = new UserEntity();
+        user.setUsername("changes-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        return userRepository.save(user);
+    }
+}
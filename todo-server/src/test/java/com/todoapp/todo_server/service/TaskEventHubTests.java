@@ -0,0 +1,78 @@
+package com.todoapp.todo_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.todo_server.dto.TaskEventDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One sender thread, so without the send timeout a client that stopped reading would hold up everyone else.
+// The emitters stand in for streams: one blocks in send like a full socket, one records what it is sent.
+class TaskEventHubTests {
+    private static final Duration SEND_TIMEOUT = Duration.ofMillis(200);
+
+    private final TaskEventHub hub = new TaskEventHub(new ObjectMapper(), Duration.ofMinutes(30), 256, 1,
+            Duration.ofHours(1), SEND_TIMEOUT, 4);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    void close() {
+        unblock.countDown();
+        hub.close();
+    }
+
+    @Test
+    void subscriberThatStoppedReadingDoesNotHoldUpTheOthers() throws Exception {
+        CountDownLatch stalledCompleted = new CountDownLatch(1);
+        hub.subscribe(1L, new SseEmitter() {
+            @Override
+            public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public synchronized void complete() {
+                stalledCompleted.countDown();
+            }
+        });
+        RecordingEmitter reader = new RecordingEmitter();
+        hub.subscribe(2L, reader);
+
+        long start = System.nanoTime();
+        hub.onTaskChanged(new TaskChangedEvent(null, new TaskEventDTO(TaskEventDTO.RESET, null, null)));
+
+        // The connected comment, then the event
+        assertNotNull(reader.sent.poll(5, TimeUnit.SECONDS));
+        assertNotNull(reader.sent.poll(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "served within a few send timeouts");
+        // The stalled stream is closed once its send returns; the pool is back to one sender for the rest
+        unblock.countDown();
+        assertTrue(stalledCompleted.await(5, TimeUnit.SECONDS));
+        hub.onTaskChanged(new TaskChangedEvent(2L, new TaskEventDTO(TaskEventDTO.DELETED, 7L, null)));
+        assertNotNull(reader.sent.poll(5, TimeUnit.SECONDS));
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<Set<DataWithMediaType>> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            sent.add(items);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.todoapp.todo_server.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Exports 1M tasks in a JVM whose heap is far smaller than the export, see the bounded-heap surefire execution
+// in pom.xml. It only passes if rows are neither buffered by the driver nor kept by the persistence context.
+@SpringBootTest
+@Tag("bounded-heap")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=export_test,public",
+        "spring.jpa.properties.hibernate.default_schema=export_test",
+        "spring.flyway.schemas=export_test",
+        "todo.outbox.relay.enabled=false",
+        "todo.counters.reconcile.enabled=false"
+})
+class TaskExportTests {
+    private static final long USER_ID = 1;
+    private static final int TASKS = 1_000_000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertTasks() {
+        // Left behind by a run whose JVM died before dropSchema, its tasks go with it
+        jdbcTemplate.update("delete from users where id = ?", USER_ID);
+        jdbcTemplate.update("insert into users (id, username, password) values (?, 'exporter', '{noop}password')", USER_ID);
+        jdbcTemplate.update("insert into tasks (id, title, description, user_id) "
+                + "select g, 'task ' || g, 'exported in a bounded heap', ? from generate_series(1, ?) g", USER_ID, TASKS);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("drop schema export_test cascade");
+    }
+
+    @Test
+    void exportStreamsEveryRowWithinTheHeap() throws Exception {
+        assertTrue(Runtime.getRuntime().maxMemory() < 128L << 20, "run by the bounded-heap execution");
+        CountingOutputStream out = new CountingOutputStream();
+
+        assertEquals(TASKS, taskService.exportTasks(USER_ID, null, out));
+
+        assertEquals(TASKS, out.lines);
+        // Each line is well over 100 bytes, so the export is several times the heap
+        assertTrue(out.bytes > Runtime.getRuntime().maxMemory(), out.bytes + " bytes");
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.dto.TaskEventDTO;
+import com.todoapp.todo_server.entity.Roles;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskOutboxEvent;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.RoleRepository;
+import com.todoapp.todo_server.repository.TaskOutboxRepository;
+import com.todoapp.todo_server.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Several relays drain the outbox at once, as they would on several instances
+@SpringBootTest
+@Import(TaskOutboxRelayTests.RecordingListener.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=outbox_test",
+        "spring.jpa.properties.hibernate.default_schema=outbox_test",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "spring.flyway.enabled=false",
+        "todo.outbox.relay.enabled=false",
+        "todo.outbox.relay.batch-size=7",
+        "todo.outbox.relay.max-attempts=3"
+})
+class TaskOutboxRelayTests {
+    private static final int TASKS = 20;
+    private static final int UPDATES = 10;
+    private static final int RELAYS = 4;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskOutboxRelay taskOutboxRelay;
+
+    @Autowired
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("truncate table tasks");
+        taskOutboxRepository.deleteAllInBatch();
+        listener.delivered.clear();
+        listener.rejected.clear();
+        Roles role = roleRepository.findByRoleName("USER").orElseGet(() -> {
+            Roles newRole = new Roles();
+            newRole.setRoleName("USER");
+            return roleRepository.save(newRole);
+        });
+        user = new UserEntity();
+        user.setUsername("outbox-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        user.setRolesList(Set.of(role));
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void concurrentRelaysDeliverEachEventOnceAndInOrderPerTask() throws Exception {
+        List<TaskCreateDTO> requests = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            TaskCreateDTO request = new TaskCreateDTO();
+            request.setTitle("outbox " + i);
+            request.setStatus(TaskStatus.OPEN);
+            request.setUserId(user.getId());
+            requests.add(request);
+        }
+        List<Task> tasks = taskService.addTasksAndAssign(requests);
+        for (int update = 1; update <= UPDATES; update++) {
+            for (Task task : tasks) {
+                taskService.updateTaskStatus(task.getId(), TaskStatus.values()[update % TaskStatus.values().length]);
+            }
+        }
+
+        ExecutorService relays = Executors.newFixedThreadPool(RELAYS);
+        try {
+            List<Callable<Void>> drains = new ArrayList<>();
+            for (int i = 0; i < RELAYS; i++) {
+                drains.add(() -> {
+                    while (taskOutboxRepository.count() > 0) {
+                        taskOutboxRelay.relayBatch();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> drain : relays.invokeAll(drains)) {
+                drain.get();
+            }
+        } finally {
+            relays.shutdownNow();
+        }
+
+        assertEquals(TASKS, listener.delivered.size());
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            List<TaskOutboxEvent> events = listener.delivered.get(task.getId());
+            assertEquals(UPDATES + 1, events.size());
+            for (int i = 0; i < events.size(); i++) {
+                assertTrue(ids.add(events.get(i).getId()), "delivered twice: " + events.get(i).getId());
+                // Every status update bumps the task version, so the i-th event carries version i
+                assertTrue(events.get(i).getPayload().contains("\"version\":" + i + ","), events.get(i).getPayload());
+            }
+        }
+    }
+
+    // The sink keeps rejecting one event. It goes alone after the first failure, so the rest of its batch
+    // gets through, and is dead-lettered after max-attempts without holding back its task's later events.
+    @Test
+    void eventThatKeepsFailingIsDeadLettered() throws Exception {
+        List<Task> tasks = taskService.addTasksAndAssign(List.of(newTask("poison"), newTask("fine"), newTask("also fine")));
+        Task poisoned = tasks.get(0);
+        TaskOutboxEvent created = taskOutboxRepository.findPendingForTasks(List.of(poisoned.getId()), 1).get(0);
+        listener.rejected.add(created.getId());
+        taskService.updateTaskStatus(poisoned.getId(), TaskStatus.DONE);
+        double deadLettered = meterRegistry.counter("todo.outbox.dead_lettered", "type", created.getType()).count();
+
+        int failures = 0;
+        while (taskOutboxRepository.countByDeadLetteredAtIsNull() > 0 && failures < 10) {
+            try {
+                taskOutboxRelay.relayBatch();
+            } catch (IllegalStateException e) {
+                failures++;
+            }
+        }
+
+        assertEquals(3, failures);
+        TaskOutboxEvent dead = taskOutboxRepository.findById(created.getId()).orElseThrow();
+        assertEquals(3, dead.getAttempts());
+        assertNotNull(dead.getDeadLetteredAt());
+        assertEquals(1, taskOutboxRepository.count());
+        assertEquals(deadLettered + 1, meterRegistry.counter("todo.outbox.dead_lettered", "type", created.getType()).count());
+        assertEquals(List.of(TaskEventDTO.STATUS), listener.delivered.get(poisoned.getId()).stream().map(TaskOutboxEvent::getType).toList());
+        assertTrue(listener.delivered.containsKey(tasks.get(1).getId()));
+        assertTrue(listener.delivered.containsKey(tasks.get(2).getId()));
+    }
+
+    private TaskCreateDTO newTask(String title) {
+        TaskCreateDTO request = new TaskCreateDTO();
+        request.setTitle(title);
+        request.setStatus(TaskStatus.OPEN);
+        request.setUserId(user.getId());
+        return request;
+    }
+
+    @TestConfiguration
+    static class RecordingListener {
+        private final Map<Long, List<TaskOutboxEvent>> delivered = new ConcurrentHashMap<>();
+        private final Set<Long> rejected = ConcurrentHashMap.newKeySet();
+
+        // Relays never hold the same task at the same time, so each list is appended by one thread at a time
+        @EventListener
+        public void onEvent(TaskOutboxEvent event) {
+            if (rejected.contains(event.getId())) {
+                throw new IllegalStateException("Rejected task event " + event.getId());
+            }
+            delivered.computeIfAbsent(event.getTaskId(), id -> new ArrayList<>()).add(event);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.entity.Roles;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.RoleRepository;
+import com.todoapp.todo_server.repository.TaskRepository;
+import com.todoapp.todo_server.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against its own schema so deleteAllTasks does not touch the development data
+@SpringBootTest
+@ActiveProfiles("l2cache")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=l2cache_test",
+        "spring.jpa.properties.hibernate.default_schema=l2cache_test",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "spring.flyway.enabled=false"
+})
+class TaskServiceCacheTests {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Behind Hibernate's back, so the cached tasks and queries over them go too
+        jdbcTemplate.execute("truncate table tasks");
+        entityManagerFactory.getCache().evictAll();
+        Roles role = roleRepository.findByRoleName("USER").orElseGet(() -> {
+            Roles newRole = new Roles();
+            newRole.setRoleName("USER");
+            return roleRepository.save(newRole);
+        });
+        user = new UserEntity();
+        user.setUsername("cache-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        user.setRolesList(Set.of(role));
+        user = userRepository.save(user);
+        statistics.clear();
+    }
+
+    @Test
+    void taskByIdIsServedFromCache() throws Exception {
+        Task task = taskService.addTaskAndAssign(new Task("cached", "read twice"), user.getId());
+
+        taskService.getTaskById(task.getId());
+        taskService.getTaskById(task.getId());
+
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", Task.class.getName())
+                .tag("result", "hit")
+                .functionCounter().count() > 0);
+    }
+
+    @Test
+    void nativeStatusUpdateIsNotServedStale() throws Exception {
+        Task task = new Task("status", "native update");
+        task.setStatus(TaskStatus.DONE);
+        task = taskService.addTaskAndAssign(task, user.getId());
+        taskService.getTaskById(task.getId());
+        taskService.getTasksByUserId(user.getId(), TaskStatus.OPEN);
+
+        taskService.updateTaskStatus(task.getId(), TaskStatus.OPEN);
+
+        assertEquals(TaskStatus.OPEN, taskService.getTaskById(task.getId()).getStatus());
+        assertEquals(1, taskService.getTasksByUserId(user.getId(), TaskStatus.OPEN).size());
+    }
+
+    @Test
+    void nativeAssignmentIsNotServedStale() throws Exception {
+        Task task = taskService.addTaskAndAssign(new Task("assign", "native update"), user.getId());
+        UserEntity other = new UserEntity();
+        other.setUsername("cache-other-" + System.nanoTime());
+        other.setPassword("{noop}password");
+        other = userRepository.save(other);
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+
+        taskService.assignTaskToUser(other.getId(), task.getId());
+
+        assertTrue(taskService.getTasksByUserId(user.getId()).isEmpty());
+        assertEquals(1, taskService.getTasksByUserId(other.getId()).size());
+    }
+
+    @Test
+    void deleteAllTasksEvictsCachedTasksAndQueries() throws Exception {
+        Task task = taskService.addTaskAndAssign(new Task("bulk", "bulk delete"), user.getId());
+        taskService.getTaskById(task.getId());
+        assertEquals(1, taskService.getTasksByUserId(user.getId()).size());
+
+        taskService.deleteAllTasks();
+
+        assertThrows(Exception.class, () -> taskService.getTaskById(task.getId()));
+        assertTrue(taskService.getTasksByUserId(user.getId()).isEmpty());
+    }
+
+    @Test
+    void deletingUserEvictsTasksRemovedByOnDeleteCascade() throws Exception {
+        Task task = taskService.addTaskAndAssign(new Task("cascade", "on delete cascade"), user.getId());
+        taskService.getTaskById(task.getId());
+
+        userRepository.delete(user);
+
+        assertThrows(Exception.class, () -> taskService.getTaskById(task.getId()));
+        List<Task> remaining = taskRepository.findAllById(List.of(task.getId()));
+        assertTrue(remaining.isEmpty());
+    }
+}
@@ -0,0 +1,174 @@
+package com.todoapp.todo_server.service;
+
+import com.todoapp.todo_server.dto.TaskCreateDTO;
+import com.todoapp.todo_server.dto.TaskStatusUpdateDTO;
+import com.todoapp.todo_server.entity.Task;
+import com.todoapp.todo_server.entity.TaskStatus;
+import com.todoapp.todo_server.entity.UserEntity;
+import com.todoapp.todo_server.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The V3 counters against a schema of its own, built by the migrations so the triggers are in place.
+// The blocking writer is a plain connection next to the application's pool.
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/postgres?currentSchema=status_counts_test,public",
+        "spring.jpa.properties.hibernate.default_schema=status_counts_test",
+        "spring.flyway.schemas=status_counts_test",
+        "todo.outbox.relay.enabled=false",
+        "todo.counters.reconcile.enabled=false"
+})
+class TaskStatusCountTests {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskStatusCountReconciler taskStatusCountReconciler;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("drop schema status_counts_test cascade");
+    }
+
+    // Kept by the V3 triggers through inserts, status updates, reassignment and deletes
+    @Test
+    void statusCountsFollowTaskWrites() throws Exception {
+        UserEntity owner = newUser();
+        UserEntity other = newUser();
+        List<Task> tasks = taskService.addTasksAndAssign(newTasks(owner, 4));
+
+        taskService.updateTaskStatus(tasks.get(0).getId(), TaskStatus.DONE);
+        taskService.updateTaskStatus(tasks.get(1).getId(), TaskStatus.IN_PROGRESS);
+        taskService.assignTaskToUser(other.getId(), tasks.get(2).getId());
+        taskService.deleteById(tasks.get(1).getId());
+
+        assertEquals(Map.of(TaskStatus.OPEN, 1L, TaskStatus.IN_PROGRESS, 0L, TaskStatus.DONE, 1L),
+                taskService.getTaskStatusSummary(owner.getId()).getCounts());
+        assertEquals(1, taskService.getTaskStatusSummary(other.getId()).getTotal());
+    }
+
+    @Test
+    void reconcilerRepairsDriftedCounts() throws Exception {
+        UserEntity user = newUser();
+        taskService.addTasksAndAssign(newTasks(user, 3));
+        // As left behind by writes with the triggers disabled
+        jdbcTemplate.update("update task_status_counts set task_count = 7 where user_id = ?", user.getId());
+
+        assertEquals(1, taskStatusCountReconciler.reconcile());
+        assertEquals(3, taskService.getTaskStatusSummary(user.getId()).getCounts().get(TaskStatus.OPEN));
+        assertEquals(0, taskStatusCountReconciler.reconcile());
+    }
+
+    // Two batches over the same two users, listed so that task id order visits the users in opposite
+    // orders. A writer holding one counter lines them up; both must go through once it commits.
+    @Test
+    void crossingBatchStatusUpdatesDoNotDeadlock() throws Exception {
+        UserEntity first = newUser();
+        UserEntity second = newUser();
+        taskService.addTaskAndAssign(newTask(TaskStatus.DONE), second.getId());
+        Task secondsEarly = taskService.addTaskAndAssign(newTask(TaskStatus.OPEN), second.getId());
+        Task firstsEarly = taskService.addTaskAndAssign(newTask(TaskStatus.OPEN), first.getId());
+        Task firstsLate = taskService.addTaskAndAssign(newTask(TaskStatus.OPEN), first.getId());
+        Task secondsLate = taskService.addTaskAndAssign(newTask(TaskStatus.OPEN), second.getId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (Connection blocker = dataSource.getConnection()) {
+            blocker.setAutoCommit(false);
+            try (PreparedStatement lock = blocker.prepareStatement(
+                    "select * from task_status_counts where user_id = ? and status = 2 for update")) {
+                lock.setLong(1, second.getId());
+                lock.executeQuery().close();
+            }
+
+            Future<List<Task>> one = executor.submit(() -> taskService.updateTaskStatuses(
+                    List.of(toDone(secondsEarly), toDone(firstsLate))));
+            awaitLockWaiters(1);
+            Future<List<Task>> other = executor.submit(() -> taskService.updateTaskStatuses(
+                    List.of(toDone(firstsEarly), toDone(secondsLate))));
+            awaitLockWaiters(2);
+            blocker.commit();
+
+            assertEquals(2, one.get(30, TimeUnit.SECONDS).size());
+            assertEquals(2, other.get(30, TimeUnit.SECONDS).size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Map.of(TaskStatus.OPEN, 0L, TaskStatus.IN_PROGRESS, 0L, TaskStatus.DONE, 2L),
+                taskService.getTaskStatusSummary(first.getId()).getCounts());
+        assertEquals(Map.of(TaskStatus.OPEN, 0L, TaskStatus.IN_PROGRESS, 0L, TaskStatus.DONE, 3L),
+                taskService.getTaskStatusSummary(second.getId()).getCounts());
+    }
+
+    private void awaitLockWaiters(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_stat_activity " +
+                "where datname = current_database() and wait_event_type = 'Lock'", Long.class) < waiters) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(waiters + " writers never queued on the counters");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static TaskStatusUpdateDTO toDone(Task task) {
+        TaskStatusUpdateDTO update = new TaskStatusUpdateDTO();
+        update.setTaskId(task.getId());
+        update.setStatus(TaskStatus.DONE);
+        return update;
+    }
+
+    private static Task newTask(TaskStatus status) {
+        Task task = new Task("task", null);
+        task.setStatus(status);
+        return task;
+    }
+
+    private UserEntity newUser() {
+        UserEntity user = new UserEntity();
+        user.setUsername("counts-" + System.nanoTime());
+        user.setPassword("{noop}password");
+        return userRepository.save(user);
+    }
+
+    private static List<TaskCreateDTO> newTasks(UserEntity user, int count) {
+        List<TaskCreateDTO> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TaskCreateDTO request = new TaskCreateDTO();
+            request.setTitle("task " + i);
+            request.setUserId(user.getId());
+            requests.add(request);
+        }
+        return requests;
+    }
+}